@@ -0,0 +1,263 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Forward search state for an admissible path from the start vertex that
+ * contains one target constraint: the search tree, the set of visited search
+ * states and the expansions refused by the visit limit.
+ *
+ * <p>The class only knows how to grow the tree one edge at a time; the order
+ * in which nodes are expanded is left to the caller, see
+ * {@code CPCGenerator.findAdmissiblePath}. A successor is added only if its
+ * path stays admissible ({@link ConstraintAutomaton}), can still be completed
+ * into a goal path ({@link ReachabilityIndex}) and does not repeat a search
+ * state already in the tree ({@link VisitedStates}).</p>
+ *
+ * <p>Every expansion is charged to a {@link Budget}. Once the budget is
+ * exhausted the search is {@link #isStopped() stopped}: no node is added
+ * any more, and the caller is expected to give up on the target. The
+ * caller {@link #flush() flushes} the search when it is done with it.</p>
+ */
+public class AdmissibleSearch {
+    private final CompactGraph<?> g;
+    private final int target;
+    private final int from;
+    private final int to;
+    private final BitSet covered;
+    private final ReachabilityIndex reach;
+    private final ConstraintAutomaton automaton;
+    private final Budget budget;
+    private int unpaid = 0;
+    private boolean stopped = false;
+    private final SearchFrontier tree;
+    private final VisitedStates visited;
+    // (node, edge) pairs refused by the current visit limit
+    private int[] cut = new int[16];
+    private int cutCount = 0;
+    // (node, edge) pairs refused by the previous limit, to be replayed
+    private int[] seeds = new int[16];
+    private int seedCount = 0;
+    private int seedNext = 0;
+
+    /**
+     * Creates an empty search for the given target constraint.
+     *
+     * @param g       the frozen graph snapshot of the SUT
+     * @param target  the index of the constraint the goal path must contain
+     * @param covered the indices of constraints already covered by previous paths
+     * @param budget  the budget expansions are charged to
+     */
+    public AdmissibleSearch(CompactGraph<?> g, int target, BitSet covered, Budget budget) {
+        this.g = g;
+        this.target = target;
+        this.from = g.constraintFrom(target);
+        this.to = g.constraintTo(target);
+        this.covered = covered;
+        this.reach = g.reachability();
+        this.automaton = g.automaton();
+        this.budget = budget;
+        this.tree = new SearchFrontier(g.edgeCount());
+        this.visited = new VisitedStates(tree);
+    }
+
+    /**
+     * Returns the search tree.
+     *
+     * @return the tree grown by this search
+     */
+    public SearchFrontier tree() {
+        return tree;
+    }
+
+    /**
+     * Checks whether a node is a goal: a non-root node at an end vertex whose
+     * path contains the target constraint.
+     *
+     * @param node a node index
+     * @return true if the node's path is a solution
+     */
+    public boolean isGoal(int node) {
+        return tree.parent(node) >= 0 && g.isEnd(tree.vertex(node))
+                && automaton.satisfied(tree.state(node), target);
+    }
+
+    /**
+     * Adds the root node at the start vertex.
+     *
+     * @return the index of the root node
+     */
+    public int root() {
+        int start = g.startVertex();
+        byte[] state = automaton.start(start);
+        long key = VisitedStates.vertexKey(start);
+        for (int k = 0; k < g.constraintDegree(start); k++) {
+            int c = g.constraintOf(start, k);
+            key += VisitedStates.constraintKey(c, state[c]);
+        }
+        int root = tree.add(start, -1, -1, state, key);
+        visited.add(root);
+        return root;
+    }
+
+    /**
+     * Expands a node over one outgoing edge, adding the successor to the
+     * tree unless it violates a constraint, cannot complete a goal path or
+     * repeats a visited state. An expansion refused only by the visit
+     * limit is recorded for the next level.
+     *
+     * @param node  the index of the node to expand
+     * @param e     the id of an outgoing edge of the node's vertex
+     * @param limit the current visit limit
+     * @return the index of the new node, or -1 if none was added
+     */
+    public int expand(int node, int e, int limit) {
+        if (!spend()) return -1;
+        if (!tree.edgeCountBelow(node, e, limit)) {
+            if (cutCount + 2 > cut.length) cut = Arrays.copyOf(cut, cut.length * 2);
+            cut[cutCount++] = node;
+            cut[cutCount++] = e;
+            return -1;
+        }
+        int last = tree.vertex(node);
+        int nxt = g.target(e);
+        byte[] state = tree.state(node);
+        byte[] next = automaton.step(state, nxt, covered);
+        if (next == null || !canComplete(next, nxt)) return -1;
+
+        long key = tree.key(node)
+                - VisitedStates.vertexKey(last) + VisitedStates.vertexKey(nxt);
+        if (next != state) {
+            for (int j = 0; j < g.constraintDegree(nxt); j++) {
+                int c = g.constraintOf(nxt, j);
+                key += VisitedStates.constraintKey(c, next[c])
+                     - VisitedStates.constraintKey(c, state[c]);
+            }
+        }
+        int child = tree.add(nxt, node, e, next, key,
+                reach.componentOf(last) == reach.componentOf(nxt));
+        if (!visited.add(child)) {
+            tree.removeLast();
+            return -1;
+        }
+        return child;
+    }
+
+    /**
+     * Counts one expansion against the budget, charging it in batches of
+     * {@link Budget#BATCH}.
+     *
+     * @return true if the search may go on, false once it is stopped
+     */
+    public boolean spend() {
+        if (stopped) return false;
+        if (++unpaid == Budget.BATCH) {
+            unpaid = 0;
+            stopped = !budget.charge(Budget.BATCH);
+        }
+        return !stopped;
+    }
+
+    /**
+     * Settles the expansions counted since the last full batch with the
+     * budget, so that it holds the exact count. Called once the search
+     * returns, whether it found a goal, gave up or was stopped.
+     */
+    public void flush() {
+        if (unpaid > 0) budget.settle(unpaid);
+        unpaid = 0;
+    }
+
+    /**
+     * Checks whether the budget has stopped the search, in which case its
+     * tree is incomplete and a missing goal proves nothing.
+     *
+     * @return true if the search has been stopped
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Checks whether some expansion has been refused by the visit limit since
+     * the last {@link #resume()}.
+     *
+     * @return true if raising the limit can add new nodes
+     */
+    public boolean hasRefused() {
+        return cutCount > 0;
+    }
+
+    /**
+     * Starts a new level: the expansions refused so far become the ones
+     * to replay.
+     *
+     * @return the index of the first node the new level will add
+     */
+    public int resume() {
+        int[] refused = seeds;
+        seeds = cut;
+        seedCount = cutCount;
+        seedNext = 0;
+        cut = refused;
+        cutCount = 0;
+        return tree.size();
+    }
+
+    /**
+     * Replays, under the raised limit, the refused expansions whose node
+     * is not deeper than the next node to process, so that their
+     * successors enter the queue where a fresh breadth-first search
+     * would have put them.
+     *
+     * @param node  the index of the next node to process, or
+     *              {@link Integer#MAX_VALUE} to replay all of them at once
+     * @param limit the current visit limit
+     */
+    public void replay(int node, int limit) {
+        while (seedNext < seedCount) {
+            int parent = seeds[seedNext];
+            if (node < tree.size() && tree.depth(parent) > tree.depth(node)) return;
+            int e = seeds[seedNext + 1];
+            seedNext += 2;
+            expand(parent, e, limit);
+        }
+    }
+
+    /**
+     * Checks whether a path currently at {@code v} can still be completed into
+     * a goal path, i.e. whether the still-needed target vertices and some end
+     * vertex are reachable from {@code v} in that order. The check ignores
+     * admissibility and edge limits, so it never prunes a feasible path.
+     *
+     * @param state the state vector of the path including {@code v}
+     * @param v     the vertex id the path currently ends at
+     * @return false if no goal path can extend the current one
+     */
+    private boolean canComplete(byte[] state, int v) {
+        if (automaton.satisfied(state, target)) {
+            return reach.canReachEnd(v);
+        }
+        if (automaton.started(state, target)) {
+            return reach.canReach(v, to) && reach.canReachEnd(to);
+        }
+        return reach.canReach(v, from) && reach.canReach(from, to) && reach.canReachEnd(to);
+    }
+}
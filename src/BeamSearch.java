@@ -0,0 +1,136 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Memory-bounded beam search for an admissible path that contains a target
+ * constraint.
+ *
+ * <p>The search advances an {@link AdmissibleSearch} tree one depth at a
+ * time, like the breadth-first search, but keeps at most {@code width}
+ * nodes per depth. When a depth has more successors, they are scored by
+ * their {@link GoalEstimate}, the lower bound on the edges still needed,
+ * and only the lowest scores are expanded further; ties go to the node
+ * added first. Each depth therefore adds at most {@code width} times the
+ * largest out-degree nodes to the tree, so memory grows with the path
+ * length instead of with the number of admissible prefixes.</p>
+ *
+ * <p>As long as no depth exceeds the width the search is a plain
+ * breadth-first one, and its result is exact: a shortest admissible path,
+ * or a proof that there is none within the limit. Once a node has been
+ * dropped, {@link #isExact()} returns false: a returned path is still
+ * admissible but may not be a shortest one, and a null result no longer
+ * proves that no path exists.</p>
+ */
+public class BeamSearch {
+    private final CompactGraph<?> g;
+    private final GoalEstimate estimate;
+    private final AdmissibleSearch search;
+    private final SearchFrontier tree;
+    private final int limit;
+    private final int width;
+    private boolean exact = true;
+
+    /**
+     * Creates the search for the given target constraint.
+     *
+     * @param g       the frozen graph snapshot of the SUT
+     * @param target  the index of the constraint the path must contain
+     * @param covered the indices of constraints already covered by previous paths
+     * @param limit   the maximum number of uses of a single edge
+     * @param width   the maximum number of nodes kept per depth, at least 1
+     * @param budget  the budget expansions are charged to
+     */
+    public BeamSearch(CompactGraph<?> g, int target, BitSet covered, int limit, int width, Budget budget) {
+        this.g = g;
+        this.estimate = new GoalEstimate(g, target);
+        this.search = new AdmissibleSearch(g, target, covered, budget);
+        this.tree = search.tree();
+        this.limit = limit;
+        this.width = width;
+    }
+
+    /**
+     * Runs the search.
+     *
+     * @return the vertex ids of an admissible path from start to an end
+     *         vertex that contains the target, or null if none was found
+     *         or the budget ran out
+     */
+    public int[] find() {
+        if (g.startVertex() < 0 || !estimate.isDefined()) return null;
+        try {
+            int root = search.root();
+            int[] level = { root };
+            int levelSize = 1;
+            long[] ranked = new long[16];
+
+            while (levelSize > 0) {
+                int first = tree.size();
+                for (int i = 0; i < levelSize; i++) {
+                    int node = level[i];
+                    int v = tree.vertex(node);
+                    if (node != root && g.isEnd(v)) {
+                        if (search.isGoal(node)) return tree.path(node);
+                        continue;
+                    }
+                    for (int k = 0; k < g.outDegree(v); k++) {
+                        search.expand(node, g.outEdge(v, k), limit);
+                    }
+                    if (search.isStopped()) return null;
+                }
+
+                // successors are the nodes added since 'first'; rank them by
+                // (estimate, index) packed into one long
+                int count = 0;
+                for (int node = first; node < tree.size(); node++) {
+                    int h = estimate.remaining(tree.vertex(node), tree.state(node));
+                    if (h < 0) continue;
+                    if (count == ranked.length) ranked = Arrays.copyOf(ranked, count * 2);
+                    ranked[count++] = (long) h << 32 | node;
+                }
+                if (count > width) {
+                    exact = false;
+                    Arrays.sort(ranked, 0, count);
+                    count = width;
+                }
+                if (level.length < count) level = new int[Math.max(count, level.length * 2)];
+                for (int i = 0; i < count; i++) level[i] = (int) ranked[i];
+                // keep insertion order within the depth, as breadth-first would
+                Arrays.sort(level, 0, count);
+                levelSize = count;
+            }
+            return null;
+        } finally {
+            search.flush();
+        }
+    }
+
+    /**
+     * Checks whether the last {@link #find()} kept every successor, in which
+     * case it returned a shortest admissible path within the limit, or null
+     * because there is none.
+     *
+     * @return true if no node was dropped from the beam
+     */
+    public boolean isExact() {
+        return exact;
+    }
+}
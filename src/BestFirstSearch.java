@@ -0,0 +1,148 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Best-first (A*) search for a shortest admissible path that contains a
+ * target constraint.
+ *
+ * <p>Nodes of an {@link AdmissibleSearch} tree are expanded in order of
+ * {@code depth + h}, where {@code h} is the {@link GoalEstimate} of the
+ * edges still needed: the distance to the target's 'from' vertex, then on to
+ * its 'to' vertex, then to the nearest end vertex. The bound is admissible
+ * and consistent, so expanding in this order and testing goals when a node is taken
+ * from the queue therefore still returns a shortest admissible path, while
+ * prefixes heading away from the constraint vertices are left unexpanded.
+ * Among nodes with equal priority the deeper one is taken first.</p>
+ *
+ * <p>The visit limit is raised as in the breadth-first search: expansions
+ * refused by the previous limit are replayed and their successors queued,
+ * and the search continues from there.</p>
+ */
+public class BestFirstSearch {
+    private final CompactGraph<?> g;
+    private final GoalEstimate estimate;
+    private final AdmissibleSearch search;
+    private final SearchFrontier tree;
+
+    // binary min-heap of node indices, ordered by before()
+    private int[] heap = new int[64];
+    private int heapSize = 0;
+    private int[] priority = new int[64];
+
+    /**
+     * Creates the search for the given target constraint.
+     *
+     * @param g       the frozen graph snapshot of the SUT
+     * @param target  the index of the constraint the path must contain
+     * @param covered the indices of constraints already covered by previous paths
+     * @param budget  the budget expansions are charged to
+     */
+    public BestFirstSearch(CompactGraph<?> g, int target, BitSet covered, Budget budget) {
+        this.g = g;
+        this.estimate = new GoalEstimate(g, target);
+        this.search = new AdmissibleSearch(g, target, covered, budget);
+        this.tree = search.tree();
+    }
+
+    /**
+     * Runs the search, raising the visit limit from 1 up to {@code visitLimit}.
+     *
+     * @param visitLimit the maximum number of uses of a single edge
+     * @return the vertex ids of a shortest admissible path from start to an
+     *         end vertex that contains the target, or null if there is none
+     *         within the visit limit or the budget ran out
+     */
+    public int[] find(int visitLimit) {
+        if (g.startVertex() < 0 || !estimate.isDefined()) return null;
+        try {
+            int root = search.root();
+            push(root);
+
+            for (int limit = 1; limit <= visitLimit; limit++) {
+                if (limit > 1) {
+                    if (!search.hasRefused()) break;
+                    int first = search.resume();
+                    search.replay(Integer.MAX_VALUE, limit);
+                    for (int node = first; node < tree.size(); node++) push(node);
+                }
+
+                while (heapSize > 0) {
+                    int node = pop();
+                    int v = tree.vertex(node);
+                    if (node != root && g.isEnd(v)) {
+                        if (search.isGoal(node)) return tree.path(node);
+                        continue;
+                    }
+                    for (int k = 0; k < g.outDegree(v); k++) {
+                        int child = search.expand(node, g.outEdge(v, k), limit);
+                        if (child >= 0) push(child);
+                    }
+                    if (search.isStopped()) return null;
+                }
+            }
+            return null;
+        } finally {
+            search.flush();
+        }
+    }
+
+    private void push(int node) {
+        int h = estimate.remaining(tree.vertex(node), tree.state(node));
+        if (h < 0) return;
+        if (node >= priority.length) priority = Arrays.copyOf(priority, Math.max(node + 1, priority.length * 2));
+        priority[node] = tree.depth(node) + h;
+        if (heapSize == heap.length) heap = Arrays.copyOf(heap, heapSize * 2);
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(node, heap[parent])) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = node;
+    }
+
+    private int pop() {
+        int top = heap[0];
+        int last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && before(heap[child + 1], heap[child])) child++;
+            if (!before(heap[child], last)) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+
+    /**
+     * Orders nodes by estimated total length, then deeper first, then by
+     * insertion order.
+     */
+    private boolean before(int a, int b) {
+        if (priority[a] != priority[b]) return priority[a] < priority[b];
+        if (tree.depth(a) != tree.depth(b)) return tree.depth(a) > tree.depth(b);
+        return a < b;
+    }
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bidirectional search for a shortest admissible path that contains a target
+ * constraint, under a fixed visit limit.
+ *
+ * <p>A forward {@link AdmissibleSearch} grows prefixes from the start vertex,
+ * carrying their constraint state, and a backward search grows suffixes from
+ * all end vertices over incoming edges. The two sides are expanded one
+ * breadth-first layer at a time, always the smaller frontier first, and each
+ * new node is joined with every node of the other side at the same vertex.
+ * A join is accepted if the combined path keeps every edge within the visit
+ * limit, is admissible and contains the target.
+ * Once the best join found is no longer than the two explored depths allow
+ * any unseen path to be, it is returned; this keeps the result a shortest
+ * admissible path while each side only explores about half its length.</p>
+ *
+ * <p>Suffixes carry the reverse state vector of
+ * {@link ConstraintAutomaton#stepReverse}, which lets the backward side drop
+ * suffixes that already violate a constraint on their own, deduplicate its
+ * states exactly like the forward side, and decide a join from the two state
+ * vectors with {@link ConstraintAutomaton#joinable} instead of replaying the
+ * suffix. The nodes of each side are grouped by vertex and state vector, so
+ * a new node is checked once against each group of the other side rather
+ * than against each of its nodes.</p>
+ *
+ * <p>The forward side alone is a complete search, so the search also stops
+ * once it is exhausted; a target that cannot be covered costs no more than
+ * with the forward search.</p>
+ */
+public class BidirectionalSearch {
+    private final CompactGraph<?> g;
+    private final int target;
+    private final BitSet covered;
+    private final int limit;
+    private final ConstraintAutomaton automaton;
+    private final PathTables tables;
+    private final ReachabilityIndex reach;
+
+    private final AdmissibleSearch forward;
+    private final SearchFrontier fwd;
+    private final SearchFrontier bwd;
+    private final VisitedStates bwdVisited;
+    private final byte[] emptySuffix;
+
+    private final Buckets fwdBuckets;
+    private final Buckets bwdBuckets;
+
+    private int bestLength = Integer.MAX_VALUE;
+    private int bestFwd = -1;
+    private int bestBwd = -1;
+
+    /**
+     * Creates the search for the given target constraint.
+     *
+     * @param g       the frozen graph snapshot of the SUT
+     * @param target  the index of the constraint the path must contain
+     * @param covered the indices of constraints already covered by previous paths
+     * @param limit   the maximum number of uses of a single edge
+     * @param budget  the budget expansions of both sides are charged to
+     */
+    public BidirectionalSearch(CompactGraph<?> g, int target, BitSet covered, int limit, Budget budget) {
+        this.g = g;
+        this.target = target;
+        this.covered = covered;
+        this.limit = limit;
+        this.automaton = g.automaton();
+        this.tables = g.pathTables();
+        this.reach = g.reachability();
+        this.forward = new AdmissibleSearch(g, target, covered, budget);
+        this.fwd = forward.tree();
+        this.bwd = new SearchFrontier(g.edgeCount());
+        this.bwdVisited = new VisitedStates(bwd);
+        this.emptySuffix = new byte[automaton.size()];
+        this.fwdBuckets = new Buckets(g.vertexCount());
+        this.bwdBuckets = new Buckets(g.vertexCount());
+    }
+
+    /**
+     * Runs the search.
+     *
+     * @return the vertex ids of a shortest admissible path from start to an
+     *         end vertex that contains the target, or null if there is none
+     *         within the visit limit or the budget ran out
+     */
+    public int[] find() {
+        if (g.startVertex() < 0) return null;
+        try {
+            linkForward(forward.root());
+            for (int k = 0; k < g.endCount(); k++) {
+                int end = g.endVertex(k);
+                byte[] state = automaton.startReverse(end);
+                long key = VisitedStates.vertexKey(end);
+                for (int j = 0; j < g.constraintDegree(end); j++) {
+                    int c = g.constraintOf(end, j);
+                    key += VisitedStates.constraintKey(c, state[c]);
+                }
+                int root = bwd.add(end, -1, -1, state, key);
+                if (bwdVisited.add(root)) linkBackward(root);
+                else bwd.removeLast();
+            }
+
+            int fStart = 0, fEnd = fwd.size(), fDepth = 0;
+            int bStart = 0, bEnd = bwd.size(), bDepth = 0;
+            // every path not seen yet is longer than fDepth + bDepth
+            while (bestLength > fDepth + bDepth + 1) {
+                boolean fDone = fStart == fEnd, bDone = bStart == bEnd;
+                if (fDone) break;
+                if (bDone || fEnd - fStart <= bEnd - bStart) {
+                    for (int node = fStart; node < fEnd; node++) expandForward(node);
+                    fStart = fEnd;
+                    fEnd = fwd.size();
+                    fDepth++;
+                } else {
+                    for (int node = bStart; node < bEnd; node++) expandBackward(node);
+                    bStart = bEnd;
+                    bEnd = bwd.size();
+                    bDepth++;
+                }
+                if (forward.isStopped()) return null;
+            }
+            if (bestFwd < 0) return null;
+
+            int[] prefix = fwd.path(bestFwd);
+            int[] suffix = bwd.pathToRoot(bestBwd);
+            int[] path = Arrays.copyOf(prefix, prefix.length + suffix.length - 1);
+            System.arraycopy(suffix, 1, path, prefix.length, suffix.length - 1);
+            return path;
+        } finally {
+            forward.flush();
+        }
+    }
+
+    /**
+     * Expands a forward node over all its outgoing edges. Prefixes that reach
+     * an end vertex are not extended, as a test path stops there.
+     */
+    private void expandForward(int node) {
+        int v = fwd.vertex(node);
+        if (fwd.parent(node) >= 0 && g.isEnd(v)) return;
+        for (int k = 0; k < g.outDegree(v); k++) {
+            int child = forward.expand(node, g.outEdge(v, k), limit);
+            if (child >= 0) linkForward(child);
+        }
+    }
+
+    /**
+     * Expands a backward node over all incoming edges of its vertex. Suffixes
+     * never pass through another end vertex, only grow from vertices
+     * reachable from start and are dropped once they violate a constraint.
+     */
+    private void expandBackward(int node) {
+        int v = bwd.vertex(node);
+        for (int k = 0; k < g.inDegree(v); k++) {
+            if (!forward.spend()) return;
+            int e = g.inEdge(v, k);
+            int u = g.source(e);
+            if (g.isEnd(u) || tables.distFromStart(u) < 0) continue;
+            if (!bwd.edgeCountBelow(node, e, limit)) continue;
+            byte[] state = bwd.state(node);
+            byte[] next = automaton.stepReverse(state, u, covered);
+            if (next == null) continue;
+
+            long key = bwd.key(node)
+                    - VisitedStates.vertexKey(v) + VisitedStates.vertexKey(u);
+            if (next != state) {
+                for (int j = 0; j < g.constraintDegree(u); j++) {
+                    int c = g.constraintOf(u, j);
+                    key += VisitedStates.constraintKey(c, next[c])
+                         - VisitedStates.constraintKey(c, state[c]);
+                }
+            }
+            int child = bwd.add(u, node, e, next, key,
+                    reach.componentOf(u) == reach.componentOf(v));
+            if (bwdVisited.add(child)) linkBackward(child);
+            else bwd.removeLast();
+        }
+    }
+
+    /**
+     * Returns the reverse state vector of the suffix after a backward node's
+     * vertex; the vertex itself is counted on the prefix side of a join.
+     */
+    private byte[] suffix(int b) {
+        return bwd.parent(b) < 0 ? emptySuffix : bwd.state(bwd.parent(b));
+    }
+
+    // progress classes of the target constraint on either side of a join
+    private static final int MATCHED = 0;
+    private static final int OPEN = 1;
+    private static final int NONE = 2;
+
+    /**
+     * Classifies the target progress of a state vector: the target is
+     * contained, or its opening vertex ('from' on a prefix, 'to' on a
+     * suffix) has been seen, or neither.
+     */
+    private int progress(byte[] state) {
+        int s = state[target];
+        return s % 3 >= 1 ? MATCHED : s / 3 >= 1 ? OPEN : NONE;
+    }
+
+    /**
+     * Checks whether a join of the two progress classes can contain the
+     * target: one side contains it, or the prefix has an open 'from' and the
+     * suffix a 'to'.
+     */
+    private static boolean canMatch(int prefix, int suffix) {
+        return prefix == MATCHED || suffix == MATCHED || (prefix == OPEN && suffix == OPEN);
+    }
+
+    private void linkForward(int node) {
+        int v = fwd.vertex(node);
+        byte[] state = fwd.state(node);
+        int cls = progress(state);
+        fwdBuckets.add(v, cls, state, node);
+        for (int other = MATCHED; other <= NONE; other++) {
+            if (!canMatch(cls, other)) continue;
+            for (int bucket = bwdBuckets.first(v, other); bucket >= 0; bucket = bwdBuckets.nextBucket(bucket)) {
+                int b = bwdBuckets.firstNode(bucket);
+                if (fwd.depth(node) + bwd.depth(b) >= bestLength) continue;
+                if (!automaton.joinable(state, bwdBuckets.state(bucket), covered, target)) continue;
+                for (; b >= 0; b = bwdBuckets.nextNode(b)) {
+                    if (fwd.depth(node) + bwd.depth(b) >= bestLength) break;
+                    join(node, b);
+                }
+            }
+        }
+    }
+
+    private void linkBackward(int node) {
+        int v = bwd.vertex(node);
+        byte[] state = suffix(node);
+        int cls = progress(state);
+        bwdBuckets.add(v, cls, state, node);
+        for (int other = MATCHED; other <= NONE; other++) {
+            if (!canMatch(other, cls)) continue;
+            for (int bucket = fwdBuckets.first(v, other); bucket >= 0; bucket = fwdBuckets.nextBucket(bucket)) {
+                int f = fwdBuckets.firstNode(bucket);
+                if (fwd.depth(f) + bwd.depth(node) >= bestLength) continue;
+                if (!automaton.joinable(fwdBuckets.state(bucket), state, covered, target)) continue;
+                for (; f >= 0; f = fwdBuckets.nextNode(f)) {
+                    if (fwd.depth(f) + bwd.depth(node) >= bestLength) break;
+                    join(f, node);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks the path made of the prefix of forward node {@code f} and the
+     * suffix of backward node {@code b}, which meet at the same vertex and
+     * have joinable states, and keeps it if it is a solution shorter than the
+     * best one so far.
+     */
+    private void join(int f, int b) {
+        int length = fwd.depth(f) + bwd.depth(b);
+        if (length == 0 || length >= bestLength) return;
+        if (bwd.parent(b) >= 0 && fwd.parent(f) >= 0 && g.isEnd(fwd.vertex(f))) return;
+
+        if (!automaton.joinable(fwd.state(f), suffix(b), covered, target)) return;
+        if (!withinLimit(f, b)) return;
+        bestLength = length;
+        bestFwd = f;
+        bestBwd = b;
+    }
+
+    /**
+     * Checks that no edge is used more than {@code limit} times by the prefix
+     * and the suffix together, deciding from the usage signatures when they
+     * do not overlap.
+     */
+    private boolean withinLimit(int f, int b) {
+        if (fwd.signaturesWithin(f, bwd, b, limit)) return true;
+        // only edges of the component of the join vertex can be on both sides
+        for (int n = b; bwd.depth(n) > bwd.entryDepth(n); n = bwd.parent(n)) {
+            int e = bwd.edge(n);
+            if (fwd.segmentCount(f, e) + bwd.segmentCount(b, e) > limit) return false;
+        }
+        return true;
+    }
+
+    /**
+     * The nodes of one side, grouped into buckets of equal vertex and state
+     * vector and listed per vertex and target progress class. Nodes within a
+     * bucket are kept in insertion order, so they come by increasing depth.
+     */
+    private static final class Buckets {
+        private final Map<ByteBuffer, Integer> stateIds = new HashMap<>();
+        private final List<byte[]> states = new ArrayList<>();
+        private final Map<Long, Integer> bucketOf = new HashMap<>();
+        private final int[] listHead;
+        private final int[] listTail;
+        private int[] bucketState = new int[16];
+        private int[] bucketNext = new int[16];
+        private int[] nodeHead = new int[16];
+        private int[] nodeTail = new int[16];
+        private int buckets = 0;
+        private int[] nodeNext = new int[64];
+
+        Buckets(int vertexCount) {
+            listHead = new int[3 * vertexCount];
+            listTail = new int[3 * vertexCount];
+            Arrays.fill(listHead, -1);
+        }
+
+        /**
+         * Adds a node to the bucket of its vertex and state vector.
+         */
+        void add(int v, int cls, byte[] state, int node) {
+            Integer id = stateIds.get(ByteBuffer.wrap(state));
+            if (id == null) {
+                id = states.size();
+                states.add(state);
+                stateIds.put(ByteBuffer.wrap(state), id);
+            }
+            long key = ((long) v << 32) | id;
+            Integer bucket = bucketOf.get(key);
+            if (bucket == null) {
+                bucket = buckets++;
+                if (bucket == bucketState.length) {
+                    int capacity = bucket * 2;
+                    bucketState = Arrays.copyOf(bucketState, capacity);
+                    bucketNext = Arrays.copyOf(bucketNext, capacity);
+                    nodeHead = Arrays.copyOf(nodeHead, capacity);
+                    nodeTail = Arrays.copyOf(nodeTail, capacity);
+                }
+                int list = 3 * v + cls;
+                bucketState[bucket] = id;
+                bucketNext[bucket] = -1;
+                nodeHead[bucket] = -1;
+                if (listHead[list] < 0) listHead[list] = bucket;
+                else bucketNext[listTail[list]] = bucket;
+                listTail[list] = bucket;
+                bucketOf.put(key, bucket);
+            }
+            if (node >= nodeNext.length) nodeNext = Arrays.copyOf(nodeNext, Math.max(node + 1, nodeNext.length * 2));
+            nodeNext[node] = -1;
+            if (nodeHead[bucket] < 0) nodeHead[bucket] = node;
+            else nodeNext[nodeTail[bucket]] = node;
+            nodeTail[bucket] = node;
+        }
+
+        int first(int v, int cls) {
+            return listHead[3 * v + cls];
+        }
+
+        int nextBucket(int bucket) {
+            return bucketNext[bucket];
+        }
+
+        byte[] state(int bucket) {
+            return states.get(bucketState[bucket]);
+        }
+
+        int firstNode(int bucket) {
+            return nodeHead[bucket];
+        }
+
+        int nextNode(int node) {
+            return nodeNext[node];
+        }
+    }
+}
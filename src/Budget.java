@@ -0,0 +1,237 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the work of one {@link TestCaseGenerator#generate()} call.
+ *
+ * <p>A budget combines a wall-clock time limit, a maximum number of search
+ * expansions and a cancellation flag, any of which may be left unset. The
+ * generator restarts the clock and the expansion count when
+ * {@code generate()} begins, polls the budget while it works, and once the
+ * budget is exhausted stops and returns the paths committed so far; its
+ * {@link TestCaseGenerator#getReport() report} then tells what was left
+ * uncovered. An expansion is one successor considered by an admissible-path
+ * search; the searches charge them in batches of {@value #BATCH}, so the
+ * limits are checked at that granularity, and {@link #settle(int) settle}
+ * the rest when they return, so the count is exact and the expansion limit
+ * is exceeded by less than one batch. Work that makes no expansions,
+ * such as building edge-coverage paths, is bounded by the time limit
+ * alone.</p>
+ *
+ * <p>A generator may hand each part of its work a {@link #share(int) share}
+ * of what is left, so that one hard search cannot use up the whole budget.
+ * A share counts its own expansions, which the generator charges to this
+ * budget once the part is done.</p>
+ *
+ * <p>{@link #cancel()} may be called from any thread. A budget is meant for
+ * one {@code generate()} call at a time.</p>
+ */
+public class Budget {
+    /** Number of expansions a search accumulates before charging them. */
+    public static final int BATCH = 64;
+
+    private long timeLimitMillis = -1;
+    private long maxExpansions = -1;
+    private volatile boolean cancelled = false;
+    private volatile boolean exhausted = false;
+    private volatile long deadline = Long.MAX_VALUE;
+    private final AtomicLong expansions = new AtomicLong();
+    // the budget this one is a share of, or null
+    private final Budget parent;
+
+    /**
+     * Creates a budget with no limits.
+     */
+    public Budget() {
+        this.parent = null;
+    }
+
+    private Budget(Budget parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Sets the wall-clock time a {@code generate()} call may take.
+     *
+     * @param timeLimitMillis the time limit in milliseconds, or -1 for none
+     * @throws IllegalArgumentException if {@code timeLimitMillis} is less than -1
+     */
+    public void setTimeLimit(long timeLimitMillis) {
+        if (timeLimitMillis < -1) {
+            throw new IllegalArgumentException("Time limit must be at least 0 or -1, got " + timeLimitMillis);
+        }
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * Returns the wall-clock time a {@code generate()} call may take.
+     *
+     * @return the time limit in milliseconds, or -1 for none
+     */
+    public long getTimeLimit() {
+        return timeLimitMillis;
+    }
+
+    /**
+     * Sets the number of search expansions a {@code generate()} call may make.
+     *
+     * @param maxExpansions the expansion limit, or -1 for none
+     * @throws IllegalArgumentException if {@code maxExpansions} is less than -1
+     */
+    public void setMaxExpansions(long maxExpansions) {
+        if (maxExpansions < -1) {
+            throw new IllegalArgumentException("Expansion limit must be at least 0 or -1, got " + maxExpansions);
+        }
+        this.maxExpansions = maxExpansions;
+    }
+
+    /**
+     * Returns the number of search expansions a {@code generate()} call may make.
+     *
+     * @return the expansion limit, or -1 for none
+     */
+    public long getMaxExpansions() {
+        return maxExpansions;
+    }
+
+    /**
+     * Requests the running generator to stop as soon as possible. The
+     * request stays in effect for later {@code generate()} calls.
+     */
+    public void cancel() {
+        cancelled = true;
+        exhausted = true;
+    }
+
+    /**
+     * Checks whether {@link #cancel()} has been called.
+     *
+     * @return true if the budget is cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Returns the number of expansions charged since the last start.
+     *
+     * @return the expansion count
+     */
+    public long getExpansions() {
+        return expansions.get();
+    }
+
+    /**
+     * Restarts the clock and the expansion count; called by the generator
+     * when {@code generate()} begins.
+     */
+    void start() {
+        expansions.set(0);
+        deadline = timeLimitMillis < 0 ? Long.MAX_VALUE
+                : System.nanoTime() + timeLimitMillis * 1_000_000L;
+        exhausted = cancelled;
+    }
+
+    /**
+     * Checks whether the time limit has passed, the expansion limit has been
+     * reached or the budget has been cancelled. Once exhausted, a budget stays
+     * exhausted until the next start.
+     *
+     * @return true if the generator must stop
+     */
+    public boolean isExhausted() {
+        if (exhausted) return true;
+        if ((maxExpansions >= 0 && expansions.get() >= maxExpansions) || isOutOfTime()) {
+            exhausted = true;
+        }
+        return exhausted;
+    }
+
+    /**
+     * Checks whether the time limit has passed or the budget has been
+     * cancelled, ignoring the expansion limit; this is what bounds work
+     * that makes no expansions.
+     *
+     * @return true if the generator must stop work that makes no expansions
+     */
+    boolean isOutOfTime() {
+        if (cancelled || (deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0)) {
+            return true;
+        }
+        return parent != null && parent.isOutOfTime();
+    }
+
+    /**
+     * Returns a budget for one of {@code parts} equal parts of the work
+     * left: it allows that part of the expansions and of the time this
+     * budget has left, and also stops once this budget runs out of time or
+     * is cancelled. The share counts its expansions separately; they are
+     * added to this budget only when the caller charges them, so the share
+     * of a later part does not depend on work still in progress.
+     *
+     * @param parts the number of parts the rest of the work is split into, at least 1
+     * @return the share, already started
+     */
+    Budget share(int parts) {
+        Budget share = new Budget(this);
+        if (maxExpansions >= 0) {
+            share.maxExpansions = Math.max(0, maxExpansions - expansions.get()) / parts;
+        }
+        if (deadline != Long.MAX_VALUE) {
+            long left = Math.max(0, deadline - System.nanoTime());
+            share.deadline = System.nanoTime() + left / parts;
+        }
+        return share;
+    }
+
+    /**
+     * Checks whether the budget has been found exhausted since the last
+     * start, without checking it again. Unlike {@link #isExhausted()} this
+     * tells whether the work was actually cut short, and is not affected by
+     * expansions settled or time passed after it returned.
+     *
+     * @return true if the budget has stopped the work
+     */
+    boolean hasStopped() {
+        return exhausted;
+    }
+
+    /**
+     * Adds the expansions a search made since its last charge to the count
+     * without checking the budget; called once the search returns, so that
+     * the count is exact but the finished search is not reported as stopped.
+     *
+     * @param count the number of expansions made since the last charge
+     */
+    void settle(int count) {
+        expansions.addAndGet(count);
+    }
+
+    /**
+     * Adds expansions to the count and checks the budget.
+     *
+     * @param count the number of expansions made since the last charge
+     * @return true if the search may go on, false if the budget is exhausted
+     */
+    boolean charge(int count) {
+        expansions.addAndGet(count);
+        return !isExhausted();
+    }
+}
@@ -18,9 +18,10 @@ package com.example.cpb_test;
 
 import java.util.*;
 import java.util.List;
-
-import org.jgrapht.Graph;
-import org.jgrapht.graph.DefaultEdge;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * Implements the Constrained Path-based Testing Composition (CPC) algorithm
@@ -30,6 +31,15 @@ import org.jgrapht.graph.DefaultEdge;
  * admissible paths, then completes edge coverage for the remaining edges,
  * always ensuring that no NEGATIVE or repeated constraints are violated.</p>
  *
+ * <p>Each constraint search gets an equal {@link Budget#share(int) share}
+ * of the budget left, with one more share kept for edge coverage, so a
+ * constraint whose search runs out of its share is left uncovered and the
+ * generator goes on with the next one. Edge coverage makes no search
+ * expansions and runs until the time limit passes; either way the paths
+ * committed so far are returned. Committed paths are never withdrawn, so
+ * {@link #generate(Consumer)} hands each one over as soon as it is
+ * committed.</p>
+ *
  * @param <V> the vertex type used in the SUT graph model
  */
 public class CPCGenerator<V> extends TestCaseGenerator<V> {
@@ -42,127 +52,740 @@ public class CPCGenerator<V> extends TestCaseGenerator<V> {
     public CPCGenerator(SUT<V> sut) { super(sut); }
 
     @Override
-    public List<List<V>> generate() {
-    	Graph<V, DefaultEdge> g = sut.getGraph();
-        List<Constraint<V>> C = sut.getConstraints();
+    public TestSet<V> generate() {
+        CompactGraph<V> g = sut.freeze();
+        TestSet<V> admissiblePaths = new TestSet<>(g);
+        generate(g, admissiblePaths, path -> { });
+        return admissiblePaths;
+    }
+
+    /**
+     * Hands each path to the consumer as soon as it is committed. The
+     * generator still keeps the vertex ids of the paths in a
+     * {@link TestSet} to skip duplicates, but not the vertex lists.
+     */
+    @Override
+    public void generate(Consumer<? super List<V>> consumer) {
+        CompactGraph<V> g = sut.freeze();
+        generate(g, new TestSet<>(g), path -> consumer.accept(g.toVertices(path)));
+    }
+
+    /**
+     * Runs both phases, adding each committed path to
+     * {@code admissiblePaths} and passing it to {@code emit}, and records
+     * the report.
+     *
+     * @param g               the frozen graph snapshot of the SUT
+     * @param admissiblePaths the empty set receiving the committed paths
+     * @param emit            the consumer receiving the committed vertex-id paths in order
+     */
+    private void generate(CompactGraph<V> g, TestSet<V> admissiblePaths, Consumer<int[]> emit) {
+        Budget budget = getBudget();
+        budget.start();
+        boolean truncated = false;
+        boolean approximate = false;
 
-        List<List<V>> admissiblePaths = new ArrayList<>();
-        List<List<V>> coveragePaths   = new ArrayList<>();
-        Set<Constraint<V>> coveredConstraints = new HashSet<>();
-        Set<DefaultEdge> coveredEdges = new HashSet<>();
+        BitSet coveredConstraints = new BitSet(g.constraintCount());
+        BitSet coveredEdges = new BitSet(g.edgeCount());
 
         // Phase 1: cover POSITIVE and ONCE constraints
-        for (Constraint<V> c : C) {
-            if (c.getType() == ConstraintType.POSITIVE ||
-                c.getType() == ConstraintType.ONCE) {
-            	if(coveredConstraints.contains(c)) continue;
+        int[] targets = searchTargets(g);
+        Speculation speculation = getParallelism() > 1 ? new Speculation(g, targets, coveredConstraints) : null;
+        try {
+            for (int i = 0; i < targets.length; i++) {
+                int c = targets[i];
+            	if(coveredConstraints.get(c)) continue;
+                if (budget.isExhausted()) {
+                    truncated = true;
+                    break;
+                }
             	
-                List<V> path = findAdmissiblePath(g, c, coveredConstraints, C);
+                // this target, the ones after it and Phase 2 split what is left
+                Budget share = budget.share(targets.length - i + 1);
+                Found found = speculation != null
+                        ? speculation.result(i, coveredConstraints, share)
+                        : search(g, c, coveredConstraints, share);
+                budget.charge((int) Math.min(found.expansions, Integer.MAX_VALUE));
+                int[] path = found.path;
+                approximate |= found.approximate;
+                if (path == null && found.stopped) {
+                    truncated = true;
+                    continue;
+                }
                 if (path != null && !admissiblePaths.contains(path)) {
                     admissiblePaths.add(path);
-                    coveragePaths.add(path);
                     markEdges(path, g, coveredEdges);
-                    markConstraints(path, C, coveredConstraints);
+                    markConstraints(path, g, coveredConstraints);
+                    emit.accept(path);
                 }
             }
+        } finally {
+            if (speculation != null) speculation.close();
         }
  
         // Phase 2: complete edge coverage
-        for (DefaultEdge e : g.edgeSet()) {
-            if (!coveredEdges.contains(e)) {
-                List<V> path = buildPathCoveringEdge(g, e);
-                if (path != null && !coveragePaths.contains(path)) {
-                    if (isAdmissible(path, C, coveredConstraints)) {
-                        coveragePaths.add(path);
+        EdgeCandidates candidates = new EdgeCandidates(g, budget.isOutOfTime() ? 1 : getParallelism());
+        try {
+            for (int e = coveredEdges.nextClearBit(0); e < g.edgeCount();
+                     e = coveredEdges.nextClearBit(e + 1)) {
+                if (budget.isOutOfTime()) {
+                    truncated = true;
+                    break;
+                }
+                int[] path = candidates.path(e);
+                if (path != null && !admissiblePaths.contains(path)) {
+                    if (isAdmissible(path, g, coveredConstraints)) {
                         markEdges(path, g, coveredEdges);
                         admissiblePaths.add(path);
-                        markConstraints(path, C, coveredConstraints);
+                        markConstraints(path, g, coveredConstraints);
+                        emit.accept(path);
                     }
                 }
             }
+        } finally {
+            candidates.close();
         }
-        return admissiblePaths;
+        report(g, coveredConstraints, coveredEdges, truncated, approximate);
+    }
+
+    /**
+     * Default maximum number of times a single edge may be reused when
+     * searching for an admissible path.
+     */
+    public static final int DEFAULT_VISIT_LIMIT = 2;
+
+    /**
+     * Default maximum number of nodes the beam search keeps per depth.
+     */
+    public static final int DEFAULT_BEAM_WIDTH = 1024;
+
+    /**
+     * Default maximum number of edges of a path found by the SAT search.
+     */
+    public static final int DEFAULT_MAX_PATH_LENGTH = 64;
+
+    private int visitLimit = DEFAULT_VISIT_LIMIT;
+    private SearchMode searchMode = SearchMode.BREADTH_FIRST;
+    private int beamWidth = DEFAULT_BEAM_WIDTH;
+    private int maxPathLength = DEFAULT_MAX_PATH_LENGTH;
+    private ConstraintOrder constraintOrder = ConstraintOrder.FILE_ORDER;
+    private boolean multiCover = false;
+    private int lengthSlack = 0;
+
+    /**
+     * Sets the maximum number of times a single edge may be reused when
+     * searching for an admissible path. Higher limits find paths for
+     * constraints that need longer loops, at the cost of a larger search.
+     *
+     * @param visitLimit the edge reuse limit, at least 1
+     * @throws IllegalArgumentException if {@code visitLimit} is less than 1
+     */
+    public void setVisitLimit(int visitLimit) {
+        if (visitLimit < 1) {
+            throw new IllegalArgumentException("Visit limit must be at least 1, got " + visitLimit);
+        }
+        this.visitLimit = visitLimit;
+    }
+
+    /**
+     * Returns the maximum number of times a single edge may be reused when
+     * searching for an admissible path.
+     *
+     * @return the edge reuse limit
+     */
+    public int getVisitLimit() {
+        return visitLimit;
+    }
+
+    /**
+     * Selects the search used to cover POSITIVE and ONCE constraints. The
+     * default breadth-first search grows paths from the start vertex only;
+     * the bidirectional search also grows them backwards from the end
+     * vertices and joins both halves, see {@link BidirectionalSearch}, and
+     * the best-first search expands the paths closest to the constraint
+     * first, see {@link BestFirstSearch}. All return shortest admissible
+     * paths, but may choose different ones among equally short candidates.
+     * The beam search keeps only {@link #getBeamWidth()} nodes per depth,
+     * see {@link BeamSearch}; its memory use is bounded, but once it drops
+     * nodes it may return longer paths or miss paths, which the
+     * {@link GenerationReport} then flags as approximate. The SAT search
+     * bounds the path length by {@link #getMaxPathLength()} instead of edge
+     * reuse by the visit limit, see {@link SatSearch}, and refutes
+     * constraints that no short path can cover without enumerating paths.
+     *
+     * @param searchMode the search strategy
+     * @throws IllegalArgumentException if {@code searchMode} is null
+     */
+    public void setSearchMode(SearchMode searchMode) {
+        if (searchMode == null) {
+            throw new IllegalArgumentException("Search mode must not be null");
+        }
+        this.searchMode = searchMode;
+    }
+
+    /**
+     * Returns the search used to cover POSITIVE and ONCE constraints.
+     *
+     * @return the search strategy
+     */
+    public SearchMode getSearchMode() {
+        return searchMode;
+    }
+
+    /**
+     * Sets the maximum number of nodes the beam search keeps per depth. Only
+     * used with {@link SearchMode#BEAM}; wider beams need more memory and
+     * are less likely to drop the nodes leading to a shortest path.
+     *
+     * @param beamWidth the beam width, at least 1
+     * @throws IllegalArgumentException if {@code beamWidth} is less than 1
+     */
+    public void setBeamWidth(int beamWidth) {
+        if (beamWidth < 1) {
+            throw new IllegalArgumentException("Beam width must be at least 1, got " + beamWidth);
+        }
+        this.beamWidth = beamWidth;
+    }
+
+    /**
+     * Returns the maximum number of nodes the beam search keeps per depth.
+     *
+     * @return the beam width
+     */
+    public int getBeamWidth() {
+        return beamWidth;
+    }
+
+    /**
+     * Sets the maximum number of edges of a path found by the SAT search.
+     * Only used with {@link SearchMode#SAT}, where it replaces the visit
+     * limit; the encoding grows with the bound times the number of vertices.
+     *
+     * @param maxPathLength the maximum path length in edges, at least 1
+     * @throws IllegalArgumentException if {@code maxPathLength} is less than 1
+     */
+    public void setMaxPathLength(int maxPathLength) {
+        if (maxPathLength < 1) {
+            throw new IllegalArgumentException("Maximum path length must be at least 1, got " + maxPathLength);
+        }
+        this.maxPathLength = maxPathLength;
+    }
+
+    /**
+     * Returns the maximum number of edges of a path found by the SAT search.
+     *
+     * @return the maximum path length in edges
+     */
+    public int getMaxPathLength() {
+        return maxPathLength;
+    }
+
+    /**
+     * Selects the order in which POSITIVE and ONCE constraints are covered.
+     * The default file order processes them as they were added to the SUT;
+     * the hardest-first order ranks them with {@link ConstraintDifficulty}
+     * so that constraints that are easily lost or expensive to search get
+     * their paths before easier ones commit paths that get in the way.
+     *
+     * @param constraintOrder the constraint order
+     * @throws IllegalArgumentException if {@code constraintOrder} is null
+     */
+    public void setConstraintOrder(ConstraintOrder constraintOrder) {
+        if (constraintOrder == null) {
+            throw new IllegalArgumentException("Constraint order must not be null");
+        }
+        this.constraintOrder = constraintOrder;
+    }
+
+    /**
+     * Returns the order in which POSITIVE and ONCE constraints are covered.
+     *
+     * @return the constraint order
+     */
+    public ConstraintOrder getConstraintOrder() {
+        return constraintOrder;
+    }
+
+    /**
+     * Enables multi-constraint covering. Instead of returning the first
+     * shortest path for a constraint, the search then keeps going up to
+     * {@link #getLengthSlack()} edges past the shortest length and returns
+     * the admissible path that covers the most still-uncovered POSITIVE and
+     * ONCE constraints, see {@code findMultiCoverPath}. Covering several
+     * constraints with one path saves both searches and test paths. The
+     * multi-cover search is always a breadth-first one, whatever the
+     * {@link SearchMode}.
+     *
+     * @param multiCover true to cover as many constraints as possible per path
+     */
+    public void setMultiCover(boolean multiCover) {
+        this.multiCover = multiCover;
+    }
+
+    /**
+     * Checks whether multi-constraint covering is enabled.
+     *
+     * @return true if each path covers as many constraints as possible
+     */
+    public boolean isMultiCover() {
+        return multiCover;
+    }
+
+    /**
+     * Sets how many edges longer than the shortest one a multi-cover path
+     * may be.
+     *
+     * @param lengthSlack the number of extra edges, at least 0
+     * @throws IllegalArgumentException if {@code lengthSlack} is negative
+     */
+    public void setLengthSlack(int lengthSlack) {
+        if (lengthSlack < 0) {
+            throw new IllegalArgumentException("Length slack must be at least 0, got " + lengthSlack);
+        }
+        this.lengthSlack = lengthSlack;
     }
 
     /**
-     * Maximum number of times a single edge may be reused when searching for
-     * an admissible path.
+     * Returns how many edges longer than the shortest one a multi-cover path
+     * may be.
+     *
+     * @return the number of extra edges
      */
-    private static final int VISITSLIMIT = 2;
+    public int getLengthSlack() {
+        return lengthSlack;
+    }
+
+    /**
+     * Returns the POSITIVE and ONCE constraints Phase 1 searches paths for,
+     * in the selected {@link ConstraintOrder}.
+     *
+     * @param g the frozen graph snapshot of the SUT
+     * @return the constraint indices in processing order
+     */
+    private int[] searchTargets(CompactGraph<V> g) {
+        int[] targets = new int[g.constraintCount()];
+        int count = 0;
+        for (int c = 0; c < g.constraintCount(); c++) {
+            if (g.constraintType(c) == ConstraintType.POSITIVE ||
+                g.constraintType(c) == ConstraintType.ONCE) {
+                targets[count++] = c;
+            }
+        }
+        targets = Arrays.copyOf(targets, count);
+        if (constraintOrder == ConstraintOrder.HARDEST_FIRST) {
+            targets = new ConstraintDifficulty(g).hardestFirst(targets);
+        }
+        return targets;
+    }
+
+    /**
+     * Searches a path for one Phase 1 constraint with the selected
+     * {@link SearchMode}, noting whether the search was exhaustive.
+     *
+     * <p>The beam search is run with the visit limit raised from 1, like the
+     * bidirectional one. Its result is approximate if a search at this or a
+     * lower limit dropped nodes, since a path could then have been missed
+     * or a shorter one skipped.</p>
+     *
+     * @param g       the frozen graph snapshot of the SUT
+     * @param target  the index of the constraint to be satisfied by the returned path
+     * @param covered the indices of constraints already covered by previous paths
+     * @param budget  the share of the budget the search may use
+     * @return the path found, or a null path if there is none, see
+     *         {@link #findAdmissiblePath}
+     */
+    private Found search(CompactGraph<V> g, int target, BitSet covered, Budget budget) {
+        if (multiCover || searchMode != SearchMode.BEAM) {
+            return new Found(findAdmissiblePath(g, target, covered, budget), false, budget);
+        }
+        boolean approximate = false;
+        for (int limit = 1; limit <= visitLimit; limit++) {
+            BeamSearch beam = new BeamSearch(g, target, covered, limit, beamWidth, budget);
+            int[] path = beam.find();
+            approximate |= !beam.isExact();
+            if (path != null) return new Found(path, approximate, budget);
+            if (budget.isExhausted()) break;
+        }
+        return new Found(null, approximate, budget);
+    }
 
     /**
      * Performs a breadth-first search to find a path from the SUT start vertex
      * that satisfies the given target constraint without violating any negative
      *  constraints. It gradually increases the allowed reuse limit for edges.
      *
-     * @param g               the directed graph model of the SUT
-     * @param target          the constraint to be satisfied by the returned path
-     * @param covered         the set of constraints already covered by previous paths
-     * @param allConstraints  the full list of constraints defined on the SUT
-     * @return a list of vertices forming an admissible path that satisfies {@code target},
-     *         or {@code null} if no such path exists within the visit limit
-     */
-    private List<V> findAdmissiblePath(Graph<V, DefaultEdge> g,
-                                       Constraint<V> target,
-                                       Set<Constraint<V>> covered,
-                                       List<Constraint<V>> C) {
-        V start = sut.getStartVertex();
-        Set<V> ends = sut.getEndVertices();
+     * <p>Frontier nodes are (vertex, parent) records of an {@link AdmissibleSearch}
+     * tree, each carrying the {@link ConstraintAutomaton} state vector of its path, so
+     * admissibility and the goal test are decided on the state vector and a
+     * path is materialized only when it is returned. The edge reuse limit is
+     * checked against the per-node usage signature of the tree, and successors
+     * from which the target constraint or an end vertex can no longer be
+     * reached are pruned using the {@link ReachabilityIndex}.</p>
+     *
+     * <p>Each node's search state (vertex, state vector, use counts of the
+     * edges of its current strongly connected component) is
+     * recorded in a {@link VisitedStates} set, and a successor repeating a
+     * state already in the tree is dropped: both have the same continuations,
+     * and the earlier node is the one breadth-first order would have returned
+     * a goal through, so the result is unchanged while cycles no longer
+     * multiply the frontier.</p>
+     *
+     * <p>The limit is raised by iterative deepening that keeps the tree of the
+     * previous level: an expansion refused only because its edge had reached
+     * the limit is recorded, and the next level replays those expansions
+     * instead of searching again from the start vertex. Each one is replayed
+     * when the queue reaches the depth of its node, which keeps the queue in
+     * breadth-first depth order and the returned path a shortest one. Every
+     * path admitted by the new limit and not by the old one goes through such
+     * an expansion, so no path is lost, and the search stops early once a
+     * level refuses nothing.</p>
+     *
+     * @param g       the frozen graph snapshot of the SUT
+     * @param target  the index of the constraint to be satisfied by the returned path
+     * @param covered the indices of constraints already covered by previous paths
+     * @param budget  the share of the budget the search may use
+     * @return the vertex ids of an admissible path that satisfies {@code target},
+     *         or {@code null} if no such path exists within the visit limit or
+     *         the {@link Budget} ran out
+     */
+    private int[] findAdmissiblePath(CompactGraph<V> g,
+                                       int target,
+                                       BitSet covered,
+                                       Budget budget) {
+        if (multiCover) {
+            return findMultiCoverPath(g, target, covered, budget);
+        }
+        if (searchMode == SearchMode.BIDIRECTIONAL) {
+            for (int limit = 1; limit <= visitLimit; limit++) {
+                int[] path = new BidirectionalSearch(g, target, covered, limit, budget).find();
+                if (path != null) return path;
+                if (budget.isExhausted()) return null;
+            }
+            return null;
+        }
+        if (searchMode == SearchMode.BEST_FIRST) {
+            return new BestFirstSearch(g, target, covered, budget).find(visitLimit);
+        }
+        if (searchMode == SearchMode.SAT) {
+            return new SatSearch(g, target, covered, maxPathLength, budget).find();
+        }
+
+        AdmissibleSearch search = new AdmissibleSearch(g, target, covered, budget);
+        try {
+            SearchFrontier tree = search.tree();
+            int root = search.root();
+            int node = root;
         
-        for (int limit = 1; limit <= VISITSLIMIT; limit++) {
-            Queue<List<V>> queue = new ArrayDeque<>();
-            
-            for (DefaultEdge e : g.outgoingEdgesOf(start)) {
-                V next = g.getEdgeTarget(e);
-                List<V> path = new ArrayList<>();
-                path.add(start);
-                path.add(next);
-                queue.add(path);
+            for (int limit = 1; limit <= visitLimit; limit++) {
+                if (limit > 1) {
+                    if (!search.hasRefused()) break;
+                    node = search.resume();
+                }
+
+                for (;; node++) {
+                    search.replay(node, limit);
+                    if (node >= tree.size()) break;
+                    int last = tree.vertex(node);
+
+                    if (node != root && g.isEnd(last)) {
+                        if (search.isGoal(node)) return tree.path(node);
+                        continue;
+                    }
+
+                    for (int k = 0; k < g.outDegree(last); k++) {
+                        search.expand(node, g.outEdge(last, k), limit);
+                    }
+                    if (search.isStopped()) return null;
+                }
             }
-            while (!queue.isEmpty()) {
-            	List<V> path = new ArrayList<>();
-                path = queue.poll();
-                V last = path.getLast();
-
-                if (ends.contains(last)) {
-                    if (containsConstraint(path, target))return path;
-                    else continue;
+            return null;
+        } finally {
+            search.flush();
+        }
+    }
+
+    /**
+     * Searches for the admissible path that contains the target constraint
+     * and covers the most other still-uncovered POSITIVE and ONCE constraints,
+     * among the paths at most {@link #getLengthSlack()} edges longer than a
+     * shortest one.
+     *
+     * <p>The search is the breadth-first search of
+     * {@link #findAdmissiblePath}, except that the first goal does not end
+     * it: it fixes the length bound, and the search goes on through all
+     * nodes up to that depth, skipping nodes that cannot reach an end vertex
+     * within the bound. Each goal is scored by the number of uncovered
+     * POSITIVE and ONCE constraints its state vector satisfies, and the
+     * first goal with the highest score is returned, which is the shortest
+     * among equally good ones. The visit limit is raised only until a first
+     * goal is found.</p>
+     *
+     * @param g       the frozen graph snapshot of the SUT
+     * @param target  the index of the constraint to be satisfied by the returned path
+     * @param covered the indices of constraints already covered by previous paths
+     * @param budget  the share of the budget the search may use
+     * @return the vertex ids of the chosen path, or {@code null} if no
+     *         admissible path satisfies {@code target} within the visit limit
+     *         or the {@link Budget} ran out
+     */
+    private int[] findMultiCoverPath(CompactGraph<V> g,
+                                     int target,
+                                     BitSet covered,
+                                     Budget budget) {
+        AdmissibleSearch search = new AdmissibleSearch(g, target, covered, budget);
+        try {
+            SearchFrontier tree = search.tree();
+            PathTables tables = g.pathTables();
+            int root = search.root();
+            int node = root;
+            int best = -1, bestScore = -1;
+            int bound = Integer.MAX_VALUE;
+
+            for (int limit = 1; limit <= visitLimit; limit++) {
+                if (limit > 1) {
+                    if (best >= 0 || !search.hasRefused()) break;
+                    node = search.resume();
                 }
 
-                for (DefaultEdge e : g.outgoingEdgesOf(last)) {
-                    V nxt = g.getEdgeTarget(e);
-                    if (countEdgeOccurrences(path, e, g) < limit) {
-                        List<V> newPath = new ArrayList<>();
-                        newPath.addAll(path);
-                        newPath.add(nxt);
-                        if (isAdmissible(newPath, C, covered)) {
-                            queue.add(newPath);
+                for (;; node++) {
+                    search.replay(node, limit);
+                    if (node >= tree.size() || tree.depth(node) > bound) break;
+                    int last = tree.vertex(node);
+
+                    if (node != root && g.isEnd(last)) {
+                        if (search.isGoal(node)) {
+                            if (best < 0) bound = tree.depth(node) + lengthSlack;
+                            int score = coverScore(g, tree.state(node), covered);
+                            if (score > bestScore) {
+                                best = node;
+                                bestScore = score;
+                            }
                         }
+                        continue;
+                    }
+                    if (tree.depth(node) + tables.distToEnd(last) > bound) continue;
+
+                    for (int k = 0; k < g.outDegree(last); k++) {
+                        search.expand(node, g.outEdge(last, k), limit);
                     }
+                    if (search.isStopped()) return null;
                 }
             }
+            return best < 0 ? null : tree.path(best);
+        } finally {
+            search.flush();
         }
-        return null;
     }
 
     /**
-     * Counts how many times the specified edge appears consecutively in the given path.
+     * Counts the uncovered POSITIVE and ONCE constraints a state vector satisfies.
      *
-     * @param path the sequence of vertices representing a candidate test path
-     * @param e    the graph edge whose occurrences are to be counted
-     * @param g    the directed graph model to resolve edge endpoints
-     * @return the number of occurrences of {@code e} in {@code path}
+     * @param g       the frozen graph snapshot of the SUT
+     * @param state   the state vector of a goal path
+     * @param covered the indices of constraints already covered by previous paths
+     * @return the number of constraints the path would newly cover
      */
-    private int countEdgeOccurrences(List<V> path,
-                                     DefaultEdge e,
-                                     Graph<V, DefaultEdge> g) {
-        int count = 0;
-        V u = g.getEdgeSource(e), v = g.getEdgeTarget(e);
-        for (int i = 0; i + 1 < path.size(); i++) {
-            if (path.get(i).equals(u) && path.get(i + 1).equals(v)) {
-                count++;
+    private int coverScore(CompactGraph<V> g, byte[] state, BitSet covered) {
+        ConstraintAutomaton automaton = g.automaton();
+        int score = 0;
+        for (int c = 0; c < g.constraintCount(); c++) {
+            if ((g.constraintType(c) == ConstraintType.POSITIVE ||
+                 g.constraintType(c) == ConstraintType.ONCE)
+                    && automaton.satisfied(state, c) && !covered.get(c)) {
+                score++;
             }
         }
-        return count;
+        return score;
+    }
+
+    /**
+     * Speculative, parallel execution of the Phase 1 searches.
+     *
+     * <p>A search depends on the covered constraints only through the bits it
+     * reads, namely those of ONCE and MAX_ONCE constraints its paths reach.
+     * Every search is therefore started up front against a copy of the
+     * covered set that records which bits were read. Phase 1 still commits
+     * results in constraint order: a result is used as is if no bit it read
+     * has been set since its copy was taken, since the sequential search
+     * would have seen the same values and returned the same path. Otherwise
+     * the search is run again against the current set, together with every
+     * later result already known to be stale, so re-runs are parallel too.
+     * Searches for constraints covered in the meantime are cancelled if they
+     * have not started yet.</p>
+     *
+     * <p>Each search runs on its own {@link Budget#share(int) share} of the
+     * budget, taken when it is submitted, whose expansion limit is never
+     * below that of the share the sequential search gets at its turn. A
+     * result is also re-run if its search was stopped or spent as much as
+     * that sequential share, since the sequential search would have been
+     * stopped too. Only the expansions of the committed search are charged,
+     * so under an expansion limit the output does not depend on the number
+     * of threads.</p>
+     */
+    private final class Speculation {
+        private final CompactGraph<V> g;
+        private final int[] targets;
+        private final ExecutorService pool;
+        private final List<Future<Attempt>> attempts;
+
+        /**
+         * Starts a search for every Phase 1 constraint not yet covered.
+         *
+         * @param g       the frozen graph snapshot of the SUT
+         * @param targets the constraints to cover, in processing order
+         * @param covered the constraints covered before Phase 1
+         */
+        Speculation(CompactGraph<V> g, int[] targets, BitSet covered) {
+            this.g = g;
+            this.targets = targets;
+            this.pool = newPool(getParallelism(), "cpc-search");
+            this.attempts = new ArrayList<>(Collections.nCopies(targets.length, (Future<Attempt>) null));
+            for (int i = 0; i < targets.length; i++) {
+                if (!covered.get(targets[i])) submit(i, covered, share(i));
+            }
+        }
+
+        /**
+         * Returns the path the sequential Phase 1 would find for the
+         * {@code i}-th target given the current covered set.
+         *
+         * @param i       the position of the constraint in the processing order
+         * @param covered the constraints covered so far; not modified
+         * @param share   the budget share the sequential search would run with
+         * @return the outcome of the search, with a null path if there is none
+         */
+        Found result(int i, BitSet covered, Budget share) {
+            cancelCovered(i, covered);
+            Attempt attempt = await(i);
+            if (!attempt.isValid(covered) || !attempt.fits(share)) {
+                submit(i, covered, share);
+                for (int k = i + 1; k < attempts.size(); k++) {
+                    Future<Attempt> future = attempts.get(k);
+                    if (future != null && future.isDone() && !future.isCancelled()
+                            && !await(k).isValid(covered)) {
+                        submit(k, covered, share(k));
+                    }
+                }
+                attempt = await(i);
+            }
+            return attempt.found;
+        }
+
+        /**
+         * Stops all searches still running or queued.
+         */
+        void close() {
+            pool.shutdownNow();
+        }
+
+        private void submit(int i, BitSet covered, Budget share) {
+            ReadRecordingBitSet snapshot = new ReadRecordingBitSet(covered);
+            int c = targets[i];
+            attempts.set(i, pool.submit(() -> new Attempt(search(g, c, snapshot, share), snapshot)));
+        }
+
+        /**
+         * Returns the share of the budget the {@code i}-th target gets if
+         * nothing more is charged before it.
+         */
+        private Budget share(int i) {
+            return getBudget().share(targets.length - i + 1);
+        }
+
+        private void cancelCovered(int i, BitSet covered) {
+            for (int k = i + 1; k < attempts.size(); k++) {
+                Future<Attempt> future = attempts.get(k);
+                if (future != null && covered.get(targets[k])) {
+                    future.cancel(false);
+                    attempts.set(k, null);
+                }
+            }
+        }
+
+        private Attempt await(int i) {
+            int c = targets[i];
+            try {
+                return attempts.get(i).get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw new IllegalStateException("Search for constraint " + c + " failed", cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while searching for constraint " + c, e);
+            }
+        }
+    }
+
+    /**
+     * The path found for one constraint, whether the search that found it
+     * dropped part of its frontier, and what it spent of its budget share.
+     */
+    private static final class Found {
+        final int[] path;
+        final boolean approximate;
+        final long expansions;
+        final boolean stopped;
+
+        Found(int[] path, boolean approximate, Budget share) {
+            this.path = path;
+            this.approximate = approximate;
+            this.expansions = share.getExpansions();
+            this.stopped = share.hasStopped();
+        }
+    }
+
+    /**
+     * The outcome of one speculative search and the covered set it ran against.
+     */
+    private static final class Attempt {
+        final Found found;
+        final ReadRecordingBitSet snapshot;
+
+        Attempt(Found found, ReadRecordingBitSet snapshot) {
+            this.found = found;
+            this.snapshot = snapshot;
+        }
+
+        /**
+         * Checks whether the search would return the same path against
+         * {@code covered}, a superset of the snapshot.
+         */
+        boolean isValid(BitSet covered) {
+            BitSet added = (BitSet) covered.clone();
+            added.andNot(snapshot);
+            return !added.intersects(snapshot.read);
+        }
+
+        /**
+         * Checks whether the search would have run to the same end on
+         * {@code share}, which allows at most as many expansions as the
+         * share it ran on: it was not stopped, and its count stayed below
+         * the limit of {@code share} at every charge.
+         */
+        boolean fits(Budget share) {
+            long limit = share.getMaxExpansions();
+            return !found.stopped && (limit < 0 || found.expansions < limit);
+        }
+    }
+
+    /**
+     * A copy of a covered set that records the indices queried through
+     * {@link #get(int)}, which is how the admissibility rules read it.
+     */
+    private static final class ReadRecordingBitSet extends BitSet {
+        private static final long serialVersionUID = 1L;
+        final BitSet read = new BitSet();
+
+        ReadRecordingBitSet(BitSet values) {
+            or(values);
+        }
+
+        @Override
+        public boolean get(int bitIndex) {
+            read.set(bitIndex);
+            return super.get(bitIndex);
+        }
     }
 }
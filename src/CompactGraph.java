@@ -0,0 +1,480 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.*;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+
+/**
+ * An immutable, integer-indexed snapshot of a {@link SUT} graph stored in
+ * compressed sparse row (CSR) form, together with its constraints resolved
+ * to vertex ids.
+ *
+ * <p>Vertices are numbered {@code 0..vertexCount()-1} by the SUT vertex
+ * {@link SymbolTable}, and edges {@code 0..edgeCount()-1} in the iteration
+ * order of its edge set. Forward and reverse adjacency are kept as offset
+ * arrays into flat edge-id arrays, preserving the order of
+ * {@code outgoingEdgesOf} and {@code incomingEdgesOf}, so searches over the
+ * snapshot visit successors in exactly the same order as searches over the
+ * original graph.</p>
+ *
+ * <p>Instances are obtained through {@link SUT#freeze()} and must not be
+ * modified; they are safe to share between threads.</p>
+ *
+ * @param <V> the vertex type used in the SUT graph model
+ */
+public final class CompactGraph<V> {
+    private final SymbolTable<V> symbols;
+    private final int vertexCount;
+    private final int start;
+    private final boolean[] end;
+    private final int[] endIds;
+
+    private final int[] edgeSource;
+    private final int[] edgeTarget;
+    private final int[] outOffset;
+    private final int[] outEdges;
+    private final int[] inOffset;
+    private final int[] inEdges;
+
+    // out-edges of each vertex sorted by target, for edgeId(u, v) lookups
+    private final int[] sortedTargets;
+    private final int[] sortedEdges;
+
+    private final int[] constraintFrom;
+    private final int[] constraintTo;
+    private final ConstraintType[] constraintType;
+    // constraints in which each vertex appears as 'from' or 'to', in CSR form
+    private final int[] vertexConstraintOffset;
+    private final int[] vertexConstraints;
+
+    private PathTables pathTables = null;
+    private ReachabilityIndex reachability = null;
+    private ConstraintAutomaton automaton = null;
+
+    /**
+     * Builds the snapshot from the current state of the given SUT.
+     *
+     * @param sut     the SUT model to freeze
+     * @param symbols the SUT vertex symbol table, already holding every graph vertex
+     */
+    CompactGraph(SUT<V> sut, SymbolTable<V> symbols) {
+        Graph<V, DefaultEdge> g = sut.getGraph();
+        int n = symbols.size();
+        int m = g.edgeSet().size();
+
+        this.symbols = symbols;
+        this.vertexCount = n;
+
+        Map<DefaultEdge, Integer> edgeIds = new HashMap<>(m * 2);
+        edgeSource = new int[m];
+        edgeTarget = new int[m];
+        int e = 0;
+        for (DefaultEdge de : g.edgeSet()) {
+            edgeIds.put(de, e);
+            edgeSource[e] = symbols.indexOf(g.getEdgeSource(de));
+            edgeTarget[e] = symbols.indexOf(g.getEdgeTarget(de));
+            e++;
+        }
+
+        outOffset = new int[n + 1];
+        outEdges = new int[m];
+        inOffset = new int[n + 1];
+        inEdges = new int[m];
+        int out = 0, in = 0;
+        for (int v = 0; v < n; v++) {
+            V vertex = symbols.symbolAt(v);
+            for (DefaultEdge de : g.outgoingEdgesOf(vertex)) {
+                outEdges[out++] = edgeIds.get(de);
+            }
+            for (DefaultEdge de : g.incomingEdgesOf(vertex)) {
+                inEdges[in++] = edgeIds.get(de);
+            }
+            outOffset[v + 1] = out;
+            inOffset[v + 1] = in;
+        }
+
+        sortedTargets = new int[m];
+        sortedEdges = new int[m];
+        long[] pairs = new long[m];
+        for (int k = 0; k < m; k++) {
+            pairs[k] = ((long) edgeTarget[outEdges[k]] << 32) | outEdges[k];
+        }
+        for (int v = 0; v < n; v++) {
+            Arrays.sort(pairs, outOffset[v], outOffset[v + 1]);
+        }
+        for (int k = 0; k < m; k++) {
+            sortedTargets[k] = (int) (pairs[k] >>> 32);
+            sortedEdges[k] = (int) pairs[k];
+        }
+
+        start = sut.getStartVertex() == null ? -1 : symbols.indexOf(sut.getStartVertex());
+        end = new boolean[n];
+        endIds = new int[sut.getEndVertices().size()];
+        int k = 0;
+        for (V v : sut.getEndVertices()) {
+            end[symbols.indexOf(v)] = true;
+            endIds[k++] = symbols.indexOf(v);
+        }
+
+        List<Constraint<V>> C = sut.getConstraints();
+        constraintFrom = new int[C.size()];
+        constraintTo = new int[C.size()];
+        constraintType = new ConstraintType[C.size()];
+        for (int c = 0; c < C.size(); c++) {
+            constraintFrom[c] = idOf(C.get(c).getFrom());
+            constraintTo[c] = idOf(C.get(c).getTo());
+            constraintType[c] = C.get(c).getType();
+        }
+
+        vertexConstraintOffset = new int[n + 1];
+        for (int c = 0; c < C.size(); c++) {
+            if (constraintFrom[c] >= 0) vertexConstraintOffset[constraintFrom[c] + 1]++;
+            if (constraintTo[c] >= 0 && constraintTo[c] != constraintFrom[c]) {
+                vertexConstraintOffset[constraintTo[c] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            vertexConstraintOffset[v + 1] += vertexConstraintOffset[v];
+        }
+        vertexConstraints = new int[vertexConstraintOffset[n]];
+        int[] fill = Arrays.copyOf(vertexConstraintOffset, n);
+        for (int c = 0; c < C.size(); c++) {
+            if (constraintFrom[c] >= 0) vertexConstraints[fill[constraintFrom[c]]++] = c;
+            if (constraintTo[c] >= 0 && constraintTo[c] != constraintFrom[c]) {
+                vertexConstraints[fill[constraintTo[c]]++] = c;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of vertices in the snapshot.
+     *
+     * @return the vertex count
+     */
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Returns the number of edges in the snapshot.
+     *
+     * @return the edge count
+     */
+    public int edgeCount() {
+        return edgeSource.length;
+    }
+
+    /**
+     * Returns the id assigned to the given vertex.
+     *
+     * @param v the vertex to look up
+     * @return the vertex id, or -1 if the vertex is not part of the graph
+     */
+    public int idOf(V v) {
+        int id = symbols.indexOf(v);
+        return id < vertexCount ? id : -1;
+    }
+
+    /**
+     * Returns the vertex with the given id.
+     *
+     * @param id a vertex id in {@code 0..vertexCount()-1}
+     * @return the original vertex object
+     */
+    public V vertexOf(int id) {
+        return symbols.symbolAt(id);
+    }
+
+    /**
+     * Translates a path of vertex ids back to the original vertices.
+     *
+     * @param path a path of vertex ids
+     * @return a new list holding the corresponding vertices
+     */
+    public List<V> toVertices(int[] path) {
+        List<V> list = new ArrayList<>(path.length);
+        for (int v : path) {
+            list.add(symbols.symbolAt(v));
+        }
+        return list;
+    }
+
+    /**
+     * Translates a path of vertices to vertex ids.
+     *
+     * @param path a path of vertices
+     * @return the ids of the vertices, with -1 for vertices not in the graph
+     */
+    public int[] toIds(List<V> path) {
+        int[] ids = new int[path.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = idOf(path.get(i));
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the id of the start vertex.
+     *
+     * @return the start vertex id, or -1 if the SUT had no start vertex
+     */
+    public int startVertex() {
+        return start;
+    }
+
+    /**
+     * Checks whether the vertex with the given id is an end vertex.
+     *
+     * @param v a vertex id
+     * @return true if {@code v} is one of the SUT end vertices
+     */
+    public boolean isEnd(int v) {
+        return end[v];
+    }
+
+    /**
+     * Returns the number of end vertices.
+     *
+     * @return the end vertex count
+     */
+    public int endCount() {
+        return endIds.length;
+    }
+
+    /**
+     * Returns the id of the {@code k}-th end vertex.
+     *
+     * @param k an index in {@code 0..endCount()-1}
+     * @return the end vertex id
+     */
+    public int endVertex(int k) {
+        return endIds[k];
+    }
+
+    /**
+     * Returns the source vertex id of an edge.
+     *
+     * @param e an edge id
+     * @return the id of the edge source
+     */
+    public int source(int e) {
+        return edgeSource[e];
+    }
+
+    /**
+     * Returns the target vertex id of an edge.
+     *
+     * @param e an edge id
+     * @return the id of the edge target
+     */
+    public int target(int e) {
+        return edgeTarget[e];
+    }
+
+    /**
+     * Returns the number of edges leaving the given vertex.
+     *
+     * @param v a vertex id
+     * @return the out-degree of {@code v}
+     */
+    public int outDegree(int v) {
+        return outOffset[v + 1] - outOffset[v];
+    }
+
+    /**
+     * Returns the {@code k}-th edge leaving the given vertex, in the order of
+     * the original {@code outgoingEdgesOf} set.
+     *
+     * @param v a vertex id
+     * @param k an index in {@code 0..outDegree(v)-1}
+     * @return the edge id
+     */
+    public int outEdge(int v, int k) {
+        return outEdges[outOffset[v] + k];
+    }
+
+    /**
+     * Returns the number of edges entering the given vertex.
+     *
+     * @param v a vertex id
+     * @return the in-degree of {@code v}
+     */
+    public int inDegree(int v) {
+        return inOffset[v + 1] - inOffset[v];
+    }
+
+    /**
+     * Returns the {@code k}-th edge entering the given vertex, in the order of
+     * the original {@code incomingEdgesOf} set.
+     *
+     * @param v a vertex id
+     * @param k an index in {@code 0..inDegree(v)-1}
+     * @return the edge id
+     */
+    public int inEdge(int v, int k) {
+        return inEdges[inOffset[v] + k];
+    }
+
+    /**
+     * Looks up the edge between two vertex ids by binary search over the
+     * sorted out-edges of {@code u}.
+     *
+     * @param u the source vertex id
+     * @param v the target vertex id
+     * @return the edge id, or -1 if there is no edge {@code u → v}
+     */
+    public int edgeId(int u, int v) {
+        int lo = outOffset[u], hi = outOffset[u + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int t = sortedTargets[mid];
+            if (t < v) lo = mid + 1;
+            else if (t > v) hi = mid - 1;
+            else return sortedEdges[mid];
+        }
+        return -1;
+    }
+
+    /**
+     * Looks up the edge between two vertices.
+     *
+     * @param u the source vertex
+     * @param v the target vertex
+     * @return the edge id, or -1 if either vertex or the edge does not exist
+     */
+    public int edgeId(V u, V v) {
+        int a = idOf(u), b = idOf(v);
+        if (a < 0 || b < 0) return -1;
+        return edgeId(a, b);
+    }
+
+    /**
+     * Returns the number of constraints, indexed in the order of
+     * {@link SUT#getConstraints()}.
+     *
+     * @return the constraint count
+     */
+    public int constraintCount() {
+        return constraintType.length;
+    }
+
+    /**
+     * Returns the id of the 'from' vertex of a constraint.
+     *
+     * @param c a constraint index
+     * @return the vertex id, or -1 if the vertex is not part of the graph
+     */
+    public int constraintFrom(int c) {
+        return constraintFrom[c];
+    }
+
+    /**
+     * Returns the id of the 'to' vertex of a constraint.
+     *
+     * @param c a constraint index
+     * @return the vertex id, or -1 if the vertex is not part of the graph
+     */
+    public int constraintTo(int c) {
+        return constraintTo[c];
+    }
+
+    /**
+     * Returns the type of a constraint.
+     *
+     * @param c a constraint index
+     * @return the {@link ConstraintType} of the constraint
+     */
+    public ConstraintType constraintType(int c) {
+        return constraintType[c];
+    }
+
+    /**
+     * Returns the number of constraints in which a vertex appears as 'from'
+     * or 'to'. Only these constraints can change state when the vertex is
+     * appended to a path.
+     *
+     * @param v a vertex id
+     * @return the number of constraints touching {@code v}
+     */
+    public int constraintDegree(int v) {
+        return vertexConstraintOffset[v + 1] - vertexConstraintOffset[v];
+    }
+
+    /**
+     * Returns the {@code k}-th constraint touching a vertex, in increasing
+     * constraint index order.
+     *
+     * @param v a vertex id
+     * @param k an index in {@code 0..constraintDegree(v)-1}
+     * @return the constraint index
+     */
+    public int constraintOf(int v, int k) {
+        return vertexConstraints[vertexConstraintOffset[v] + k];
+    }
+
+    /**
+     * Returns the shortest-path tables from start and to the end vertices,
+     * building them on first use. The tables are shared by every generator
+     * running on this snapshot.
+     *
+     * @return the {@link PathTables} of this snapshot
+     */
+    public synchronized PathTables pathTables() {
+        if (pathTables == null) {
+            pathTables = new PathTables(this);
+        }
+        return pathTables;
+    }
+
+    /**
+     * Returns the SCC-based reachability index of this snapshot, building it
+     * on first use.
+     *
+     * @return the {@link ReachabilityIndex} of this snapshot
+     */
+    public synchronized ReachabilityIndex reachability() {
+        if (reachability == null) {
+            reachability = new ReachabilityIndex(this);
+        }
+        return reachability;
+    }
+
+    /**
+     * Returns the constraints of this snapshot compiled into incremental
+     * state machines, building them on first use.
+     *
+     * @return the {@link ConstraintAutomaton} of this snapshot
+     */
+    public synchronized ConstraintAutomaton automaton() {
+        if (automaton == null) {
+            automaton = new ConstraintAutomaton(this);
+        }
+        return automaton;
+    }
+
+    /**
+     * Returns a string summary of the snapshot size.
+     *
+     * @return a formatted string with vertex and edge counts
+     */
+    @Override
+    public String toString() {
+        return String.format("CompactGraph{vertices=%d, edges=%d}", vertexCount(), edgeCount());
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.BitSet;
+
+/**
+ * The constraints of a SUT compiled into small state machines that are
+ * advanced one vertex at a time.
+ *
+ * <p>Each constraint {@code from → to} is tracked by the pair of counters used
+ * by {@link TestCaseGenerator#containsConstraint(int[], int, int)} and
+ * {@link TestCaseGenerator#containsConstraintRepeatedly(int[], int, int, int)}:
+ * the number of 'from' occurrences and the number of 'to' occurrences matched
+ * to an earlier 'from'. Both counters saturate at 2, which is all that the
+ * constraint rules can observe, so a state fits in one byte and there are only
+ * nine of them. A path contains the constraint once the 'to' counter is 1 and
+ * repeats it once the counter is 2.</p>
+ *
+ * <p>A search carries one state vector per frontier node. Appending a vertex
+ * only updates the constraints in which it appears, found through the
+ * vertex-to-constraint index of the {@link CompactGraph}, each in constant
+ * time. Since the constraint rules are monotone along a path, admissibility
+ * of the extended path only depends on those constraints, and a vertex that
+ * appears in no constraint leaves the parent's state vector shared.</p>
+ */
+public class ConstraintAutomaton {
+    private static final int FROM = 0;
+    private static final int TO = 1;
+    private static final int OTHER = 2;
+
+    // NEXT[symbol][state], state = 3 * fromCount + toCount
+    private static final byte[][] NEXT = new byte[3][9];
+    static {
+        for (int f = 0; f < 3; f++) {
+            for (int t = 0; t < 3; t++) {
+                int s = 3 * f + t;
+                NEXT[FROM][s] = (byte) (3 * Math.min(f + 1, 2) + t);
+                NEXT[TO][s] = (byte) (3 * f + (f > t ? Math.min(t + 1, 2) : t));
+                NEXT[OTHER][s] = (byte) s;
+            }
+        }
+    }
+
+    private final CompactGraph<?> g;
+    private final int[] from;
+    private final int[] to;
+    private final ConstraintType[] type;
+
+    /**
+     * Compiles the constraints of the given snapshot.
+     *
+     * @param g the frozen snapshot holding the SUT constraints
+     */
+    public ConstraintAutomaton(CompactGraph<?> g) {
+        this.g = g;
+        int n = g.constraintCount();
+        from = new int[n];
+        to = new int[n];
+        type = new ConstraintType[n];
+        for (int c = 0; c < n; c++) {
+            from[c] = g.constraintFrom(c);
+            to[c] = g.constraintTo(c);
+            type[c] = g.constraintType(c);
+        }
+    }
+
+    /**
+     * Returns the number of compiled constraints.
+     *
+     * @return the constraint count
+     */
+    public int size() {
+        return type.length;
+    }
+
+    /**
+     * Returns the state vector of a path consisting of the single vertex {@code v}.
+     *
+     * @param v the first vertex id of the path
+     * @return a new state vector
+     */
+    public byte[] start(int v) {
+        byte[] states = new byte[type.length];
+        for (int k = 0; k < g.constraintDegree(v); k++) {
+            int c = g.constraintOf(v, k);
+            states[c] = NEXT[symbol(c, v)][0];
+        }
+        return states;
+    }
+
+    /**
+     * Returns the state vector after appending {@code v} to a path whose
+     * state vector is {@code states}, provided the extended path stays
+     * admissible.
+     *
+     * @param states  the state vector of an admissible path; not modified
+     * @param v       the appended vertex id
+     * @param covered the indices of constraints already covered by previous paths
+     * @return the new state vector, {@code states} itself if no constraint
+     *         changed, or null if the extended path violates a constraint
+     */
+    public byte[] step(byte[] states, int v, BitSet covered) {
+        byte[] next = states;
+        for (int k = 0; k < g.constraintDegree(v); k++) {
+            int c = g.constraintOf(v, k);
+            byte s = NEXT[symbol(c, v)][states[c]];
+            if (s != states[c]) {
+                if (violates(c, s, covered)) return null;
+                if (next == states) next = states.clone();
+                next[c] = s;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Feeds the first {@code length} vertices of a path through the automata.
+     *
+     * @param path   a buffer holding the vertex ids of a path
+     * @param length the number of valid vertices in {@code path}, at least one
+     * @return the state vector of the path
+     */
+    public byte[] run(int[] path, int length) {
+        byte[] states = start(path[0]);
+        for (int i = 1; i < length; i++) {
+            int v = path[i];
+            for (int k = 0; k < g.constraintDegree(v); k++) {
+                int c = g.constraintOf(v, k);
+                states[c] = NEXT[symbol(c, v)][states[c]];
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Checks a whole path against the admissibility rules, stopping at the
+     * first violation.
+     *
+     * @param path    a buffer holding the vertex ids of a path
+     * @param length  the number of valid vertices in {@code path}
+     * @param covered the indices of constraints already covered by previous paths
+     * @return true if no constraint is violated
+     */
+    public boolean admissible(int[] path, int length, BitSet covered) {
+        if (length == 0) return true;
+        byte[] states = start(path[0]);
+        for (int i = 1; i < length; i++) {
+            states = step(states, path[i], covered);
+            if (states == null) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the reverse state vector of a path suffix consisting of the
+     * single vertex {@code v}, see {@link #stepReverse}.
+     *
+     * @param v the last vertex id of the path
+     * @return a new reverse state vector
+     */
+    public byte[] startReverse(int v) {
+        byte[] states = new byte[type.length];
+        for (int k = 0; k < g.constraintDegree(v); k++) {
+            int c = g.constraintOf(v, k);
+            states[c] = NEXT[reverseSymbol(c, v)][0];
+        }
+        return states;
+    }
+
+    /**
+     * Returns the reverse state vector after prepending {@code v} to a path
+     * suffix, provided the suffix on its own stays admissible.
+     *
+     * <p>The number of 'to' occurrences matched to an earlier 'from' is the
+     * size of a maximum matching between 'from' and later 'to' occurrences,
+     * which is the same when counted from the right: each 'from' is matched
+     * to an unmatched 'to' after it. A reverse state therefore uses the same
+     * nine states with the roles of the two vertices swapped, i.e.
+     * {@code 3 * toCount + matched}. Since prepending vertices never lowers
+     * the matched count, a suffix that violates a constraint on its own
+     * cannot be part of an admissible path.</p>
+     *
+     * @param states  the reverse state vector of a suffix; not modified
+     * @param v       the prepended vertex id
+     * @param covered the indices of constraints already covered by previous paths
+     * @return the new reverse state vector, {@code states} itself if no
+     *         constraint changed, or null if the suffix violates a constraint
+     */
+    public byte[] stepReverse(byte[] states, int v, BitSet covered) {
+        byte[] next = states;
+        for (int k = 0; k < g.constraintDegree(v); k++) {
+            int c = g.constraintOf(v, k);
+            byte s = NEXT[reverseSymbol(c, v)][states[c]];
+            if (s != states[c]) {
+                if (violates(c, s, covered)) return null;
+                if (next == states) next = states.clone();
+                next[c] = s;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Checks whether a prefix and a suffix form an admissible path that
+     * contains constraint {@code target}. The suffix is the continuation of
+     * the prefix after their shared vertex, which must be counted on one
+     * side only.
+     *
+     * <p>The matched count of the whole path is the matches inside each
+     * part plus the unmatched prefix 'from' occurrences paired with the
+     * unmatched suffix 'to' occurrences, capped at 2 like the counters.</p>
+     *
+     * @param prefix  the state vector of the prefix
+     * @param suffix  the reverse state vector of the suffix
+     * @param covered the indices of constraints already covered by previous paths
+     * @param target  the index of the constraint the path must contain
+     * @return true if the joined path is admissible and contains {@code target}
+     */
+    public boolean joinable(byte[] prefix, byte[] suffix, BitSet covered, int target) {
+        for (int c = 0; c < suffix.length; c++) {
+            if (suffix[c] == 0) continue;
+            if (violates(c, joined(prefix[c], suffix[c]), covered)) return false;
+        }
+        return joined(prefix[target], suffix[target]) >= 1;
+    }
+
+    /**
+     * Returns the matched count of a constraint over a prefix and a suffix.
+     */
+    private static int joined(int prefix, int suffix) {
+        int froms = prefix / 3, matchedPrefix = prefix % 3;
+        int tos = suffix / 3, matchedSuffix = suffix % 3;
+        int across = Math.min(froms - matchedPrefix, tos - matchedSuffix);
+        return Math.min(2, matchedPrefix + matchedSuffix + across);
+    }
+
+    /**
+     * Checks whether the path behind a state vector contains constraint {@code c}.
+     *
+     * @param states a state vector
+     * @param c      a constraint index
+     * @return true if the constraint's 'to' vertex follows its 'from' vertex
+     */
+    public boolean satisfied(byte[] states, int c) {
+        return states[c] % 3 >= 1;
+    }
+
+    /**
+     * Checks whether the path behind a state vector has visited the 'from'
+     * vertex of constraint {@code c}.
+     *
+     * @param states a state vector
+     * @param c      a constraint index
+     * @return true if the constraint's 'from' vertex occurs in the path
+     */
+    public boolean started(byte[] states, int c) {
+        return states[c] / 3 >= 1;
+    }
+
+    /**
+     * Checks a whole state vector against the admissibility rules.
+     *
+     * @param states  a state vector
+     * @param covered the indices of constraints already covered by previous paths
+     * @return true if no constraint is violated
+     */
+    public boolean admissible(byte[] states, BitSet covered) {
+        for (int c = 0; c < states.length; c++) {
+            if (violates(c, states[c], covered)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Applies the admissibility rules of {@link TestCaseGenerator#isAdmissible}
+     * to a single constraint state.
+     *
+     * @param c       a constraint index
+     * @param s       the state of constraint {@code c}
+     * @param covered the indices of constraints already covered by previous paths
+     * @return true if the state violates the constraint
+     */
+    private boolean violates(int c, int s, BitSet covered) {
+        int t = s % 3;
+        switch (type[c]) {
+            case NEGATIVE:
+                return t >= 1;
+            case ONCE:
+            case MAX_ONCE:
+                return t >= 2 || (t >= 1 && covered.get(c));
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Maps a vertex to the input symbol of constraint {@code c}. As in
+     * {@code containsConstraint}, a vertex that is both 'from' and 'to'
+     * counts as 'from'.
+     */
+    private int symbol(int c, int v) {
+        if (v == from[c]) return FROM;
+        if (v == to[c]) return TO;
+        return OTHER;
+    }
+
+    /**
+     * Maps a vertex to the input symbol of constraint {@code c} when a path is
+     * read backwards: 'to' occurrences open matches and 'from' occurrences
+     * close them.
+     */
+    private int reverseSymbol(int c, int v) {
+        if (v == from[c]) return TO;
+        if (v == to[c]) return FROM;
+        return OTHER;
+    }
+}
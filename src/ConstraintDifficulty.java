@@ -0,0 +1,177 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.Arrays;
+
+/**
+ * Static difficulty ranking of the constraints of a snapshot, used to cover
+ * the hardest constraints first.
+ *
+ * <p>The ranking looks at the graph and the constraints only, not at any
+ * search, and orders constraints by, in turn:
+ * <ol>
+ *   <li>whether a start-to-end path through 'from' and then 'to' exists at
+ *       all; constraints without one come last, as their searches are
+ *       pruned at the root anyway;</li>
+ *   <li>the type: ONCE before POSITIVE, since a ONCE constraint can be lost
+ *       to a path committed for another constraint;</li>
+ *   <li>the number of other NEGATIVE, ONCE and MAX_ONCE constraints on the
+ *       'from' or 'to' vertex, more first, since each of them forbids some
+ *       ways of reaching or repeating those vertices;</li>
+ *   <li>the length of a shortest start-to-end walk through 'from' and then
+ *       'to', longer first, since the search tree grows with the depth;</li>
+ *   <li>the out-degree of the 'from' vertex, smaller first, since fewer
+ *       continuations leave fewer admissible paths;</li>
+ *   <li>the constraint index, so that the order is deterministic.</li>
+ * </ol>
+ * </p>
+ */
+public class ConstraintDifficulty {
+    private final CompactGraph<?> g;
+    private final int[] minLength;
+    private final int[] conflicts;
+
+    /**
+     * Computes the difficulty measures of every constraint of a snapshot.
+     *
+     * @param g the frozen graph snapshot of the SUT
+     */
+    public ConstraintDifficulty(CompactGraph<?> g) {
+        this.g = g;
+        int n = g.constraintCount();
+        this.minLength = new int[n];
+        this.conflicts = new int[n];
+
+        PathTables tables = g.pathTables();
+        int[] dist = new int[g.vertexCount()];
+        int[] queue = new int[g.vertexCount()];
+        int lastFrom = -1;
+        // constraints sorted by 'from' vertex, so each BFS is run once
+        Integer[] byFrom = new Integer[n];
+        for (int c = 0; c < n; c++) byFrom[c] = c;
+        Arrays.sort(byFrom, (a, b) -> Integer.compare(g.constraintFrom(a), g.constraintFrom(b)));
+        for (int c : byFrom) {
+            int from = g.constraintFrom(c), to = g.constraintTo(c);
+            minLength[c] = -1;
+            conflicts[c] = countConflicts(c, from) + (to == from ? 0 : countConflicts(c, to));
+            if (from < 0 || to < 0) continue;
+            if (g.constraintType(c) != ConstraintType.POSITIVE &&
+                g.constraintType(c) != ConstraintType.ONCE) continue;
+            if (from != lastFrom) {
+                distancesFrom(from, dist, queue);
+                lastFrom = from;
+            }
+            if (tables.distFromStart(from) < 0 || dist[to] < 0 || tables.distToEnd(to) < 0) continue;
+            minLength[c] = tables.distFromStart(from) + dist[to] + tables.distToEnd(to);
+        }
+    }
+
+    /**
+     * Returns the length of a shortest start-to-end walk that visits the
+     * constraint's 'from' vertex and later its 'to' vertex, ignoring all
+     * other constraints. Only computed for POSITIVE and ONCE constraints.
+     *
+     * @param c a constraint index
+     * @return the length in edges, or -1 if there is no such walk or the
+     *         constraint is of another type
+     */
+    public int minLength(int c) {
+        return minLength[c];
+    }
+
+    /**
+     * Returns the number of other NEGATIVE, ONCE and MAX_ONCE constraints on
+     * the constraint's 'from' or 'to' vertex.
+     *
+     * @param c a constraint index
+     * @return the conflict count
+     */
+    public int conflicts(int c) {
+        return conflicts[c];
+    }
+
+    /**
+     * Sorts constraint indices from the hardest to the easiest.
+     *
+     * @param constraints the constraint indices to rank
+     * @return a new array holding the same indices, hardest first
+     */
+    public int[] hardestFirst(int[] constraints) {
+        Integer[] order = new Integer[constraints.length];
+        for (int i = 0; i < order.length; i++) order[i] = constraints[i];
+        Arrays.sort(order, this::compare);
+        int[] ranked = new int[order.length];
+        for (int i = 0; i < ranked.length; i++) ranked[i] = order[i];
+        return ranked;
+    }
+
+    /**
+     * Orders two constraints, the harder one first.
+     */
+    private int compare(int a, int b) {
+        boolean feasibleA = minLength[a] >= 0, feasibleB = minLength[b] >= 0;
+        if (feasibleA != feasibleB) return feasibleA ? -1 : 1;
+        boolean onceA = g.constraintType(a) == ConstraintType.ONCE;
+        boolean onceB = g.constraintType(b) == ConstraintType.ONCE;
+        if (onceA != onceB) return onceA ? -1 : 1;
+        if (conflicts[a] != conflicts[b]) return Integer.compare(conflicts[b], conflicts[a]);
+        if (minLength[a] != minLength[b]) return Integer.compare(minLength[b], minLength[a]);
+        int degreeA = outDegree(g.constraintFrom(a)), degreeB = outDegree(g.constraintFrom(b));
+        if (degreeA != degreeB) return Integer.compare(degreeA, degreeB);
+        return Integer.compare(a, b);
+    }
+
+    private int outDegree(int v) {
+        return v < 0 ? 0 : g.outDegree(v);
+    }
+
+    /**
+     * Counts the NEGATIVE, ONCE and MAX_ONCE constraints other than {@code c}
+     * in which vertex {@code v} appears.
+     */
+    private int countConflicts(int c, int v) {
+        if (v < 0) return 0;
+        int count = 0;
+        for (int k = 0; k < g.constraintDegree(v); k++) {
+            int other = g.constraintOf(v, k);
+            if (other != c && g.constraintType(other) != ConstraintType.POSITIVE) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Fills {@code dist} with the length of a shortest path from {@code source}
+     * to every vertex, -1 for unreachable ones.
+     */
+    private void distancesFrom(int source, int[] dist, int[] queue) {
+        Arrays.fill(dist, -1);
+        int head = 0, tail = 0;
+        dist[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int k = 0; k < g.outDegree(v); k++) {
+                int w = g.target(g.outEdge(v, k));
+                if (dist[w] < 0) {
+                    dist[w] = dist[v] + 1;
+                    queue[tail++] = w;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+/**
+ * Defines the order in which {@link CPCGenerator} covers the POSITIVE and
+ * ONCE constraints in its first phase.
+ *
+ * <p>A path committed for one constraint marks the constraints it contains
+ * as covered, which can make a later ONCE constraint harder or impossible
+ * to cover, so the order changes the generated test set:
+ * <ul>
+ *   <li>{@link #FILE_ORDER}    – constraints in the order they were added to
+ *       the SUT; the default.</li>
+ *   <li>{@link #HARDEST_FIRST} – constraints ranked by
+ *       {@link ConstraintDifficulty}, the hardest first.</li>
+ * </ul>
+ * </p>
+ */
+public enum ConstraintOrder {
+    FILE_ORDER,
+    HARDEST_FIRST
+}
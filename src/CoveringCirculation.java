@@ -0,0 +1,225 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Flow model of a set of start-to-end walks that together traverse every
+ * coverable edge of a {@link CompactGraph}.
+ *
+ * <p>A set of start-to-end walks is a flow from the start vertex to the end
+ * vertices in which every edge carries as many units as the walks traverse
+ * it. Adding a return vertex {@code R}, with an arc from every end vertex to
+ * {@code R} and one from {@code R} to the start vertex, turns it into a
+ * circulation whose flow through {@code R} is the number of walks, and edge
+ * coverage becomes a lower bound of one unit on every coverable edge. The
+ * lower bounds are removed in the usual way: each edge carries one unit
+ * implicitly, and the resulting surplus and deficit of every vertex is
+ * supplied from a super source and drained into a super sink. The arc from
+ * {@code R} to the start vertex also gets a lower bound of one, so there is
+ * at least one walk.</p>
+ *
+ * <p>Every coverable edge is reachable from the start vertex over coverable
+ * edges, so a solved circulation is a connected Eulerian multigraph. An Euler
+ * circuit from {@code R}, split at {@code R}, gives the walks; cycles of the
+ * graph are walked wherever the circuit meets them.</p>
+ */
+public class CoveringCirculation {
+    private final CompactGraph<?> g;
+    private final FlowNetwork net;
+    private final int ret;
+    private final int source;
+    private final int sink;
+    private final int[] edgeArc;
+    private final int[] endArc;
+    private final int returnArc;
+    private final long required;
+
+    /**
+     * Builds the network for the given snapshot. Each traversal costs more
+     * than any possible number of walks, so a minimum-cost circulation has
+     * the minimum total length first and the fewest walks second.
+     *
+     * @param g the frozen graph snapshot of the SUT
+     */
+    public CoveringCirculation(CompactGraph<?> g) {
+        this.g = g;
+        int n = g.vertexCount(), m = g.edgeCount();
+        PathTables tables = g.pathTables();
+        // nodes: vertices, the return vertex, the super source and the super sink
+        this.ret = n;
+        this.source = n + 1;
+        this.sink = n + 2;
+        this.net = new FlowNetwork(n + 3);
+        this.edgeArc = new int[m];
+        this.endArc = new int[n];
+        Arrays.fill(edgeArc, -1);
+        Arrays.fill(endArc, -1);
+
+        int start = g.startVertex();
+        // a walk costs less than one traversal, however many walks there are
+        long traversalCost = (long) m * Math.max(n, 1) + 1;
+        long[] surplus = new long[n + 1];
+        boolean any = false;
+        for (int e = 0; e < m && start >= 0; e++) {
+            if (!tables.isCoverable(e)) continue;
+            edgeArc[e] = net.addArc(g.source(e), g.target(e), traversalCost);
+            surplus[g.target(e)]++;
+            surplus[g.source(e)]--;
+            any = true;
+        }
+        if (!any) {
+            this.returnArc = -1;
+            this.required = 0;
+            return;
+        }
+        for (int k = 0; k < g.endCount(); k++) {
+            int t = g.endVertex(k);
+            if (tables.distFromStart(t) >= 0) endArc[t] = net.addArc(t, ret, 1);
+        }
+        this.returnArc = net.addArc(ret, start, 0);
+        surplus[start]++;
+        surplus[ret]--;
+
+        long total = 0;
+        for (int v = 0; v < n + 1; v++) {
+            if (surplus[v] > 0) {
+                net.addArc(source, v, 0, surplus[v]);
+                total += surplus[v];
+            } else if (surplus[v] < 0) {
+                net.addArc(v, sink, 0, -surplus[v]);
+            }
+        }
+        this.required = total;
+    }
+
+    /**
+     * Solves the circulation for the minimum total length, and among those
+     * for the fewest walks.
+     *
+     * @param budget the budget the flow computation is charged to
+     * @return false if the budget ran out before the circulation was solved
+     */
+    public boolean minimizeLength(Budget budget) {
+        if (returnArc < 0) return true;
+        return net.minCostFlow(source, sink, required, budget);
+    }
+
+    /**
+     * Solves the circulation for the fewest walks, ignoring their length.
+     *
+     * <p>A maximum flow from the super source to the super sink gives a
+     * feasible circulation. The flow through {@code R} is then reduced by a
+     * maximum flow from {@code R} back to the start vertex in the residual
+     * network without the return arc: each unit moves the end of one walk
+     * onto the start of another, joining the two.</p>
+     *
+     * @param budget the budget the flow computation is charged to
+     * @return false if the budget ran out before the circulation was solved
+     */
+    public boolean minimizeWalks(Budget budget) {
+        if (returnArc < 0) return true;
+        long feasible = net.maxFlow(source, sink, required, budget);
+        if (feasible < required) return false;
+        long extra = net.flow(returnArc);
+        net.freeze(returnArc);
+        return extra == 0 || net.maxFlow(ret, g.startVertex(), extra, budget) >= 0;
+    }
+
+    /**
+     * Splits the solved circulation into start-to-end walks, following an
+     * Euler circuit that starts and ends at the return vertex. Edges are
+     * taken in adjacency order, returning to {@code R} after the out-edges
+     * of an end vertex are used up.
+     *
+     * @return the vertex ids of the walks
+     */
+    public List<int[]> walks() {
+        int n = g.vertexCount(), m = g.edgeCount();
+        List<int[]> walks = new ArrayList<>();
+        if (returnArc < 0) return walks;
+
+        // remaining uses of every edge, then of every end -> R arc
+        long[] remaining = new long[m + n];
+        long total = 0;
+        int walkCount = 0;
+        for (int e = 0; e < m; e++) {
+            if (edgeArc[e] >= 0) remaining[e] = 1 + net.flow(edgeArc[e]);
+            total += remaining[e];
+        }
+        for (int v = 0; v < n; v++) {
+            if (endArc[v] >= 0) remaining[m + v] = net.flow(endArc[v]);
+            walkCount += (int) remaining[m + v];
+        }
+        // arcs of the circuit: the edges, plus end -> R and R -> start per walk
+        total += 2L * walkCount;
+
+        // next out-edge position per vertex
+        int[] next = new int[n];
+        // Hierholzer: 'stack' holds the current trail, 'circuit' receives
+        // vertices in reverse order as they are finished
+        int[] stack = new int[(int) total + 1];
+        int[] circuit = new int[(int) total + 1];
+        int top = 0, size = 0;
+        int returnsLeft = walkCount;
+        stack[top++] = ret;
+        while (top > 0) {
+            int v = stack[top - 1];
+            int w = -1;
+            if (v == ret) {
+                if (returnsLeft > 0) {
+                    returnsLeft--;
+                    w = g.startVertex();
+                }
+            } else {
+                while (next[v] < g.outDegree(v)) {
+                    int e = g.outEdge(v, next[v]);
+                    if (remaining[e] > 0) {
+                        remaining[e]--;
+                        w = g.target(e);
+                        break;
+                    }
+                    next[v]++;
+                }
+                if (w < 0 && remaining[m + v] > 0) {
+                    remaining[m + v]--;
+                    w = ret;
+                }
+            }
+            if (w >= 0) {
+                stack[top++] = w;
+            } else {
+                circuit[size++] = stack[--top];
+            }
+        }
+
+        // the circuit, read backwards, is R, start, ..., end, R, start, ...
+        int from = size - 1;
+        for (int i = size - 2; i >= 0; i--) {
+            if (circuit[i] != ret) continue;
+            int[] walk = new int[from - i - 1];
+            for (int k = 0; k < walk.length; k++) walk[k] = circuit[from - 1 - k];
+            // a start vertex that is also an end can give a walk without edges
+            if (walk.length > 1) walks.add(walk);
+            from = i;
+        }
+        return walks;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Candidate paths for the edge-coverage passes, built ahead of time in
+ * parallel.
+ *
+ * <p>The edge-coverage loops walk the uncovered edge ids in increasing order
+ * and commit the path {@link PathTables#pathCovering(int)} returns for each.
+ * That path depends on the edge alone, so it can be built on any thread;
+ * only the decision which edges still need one depends on the paths
+ * committed before. The edge ids are therefore split into contiguous ranges,
+ * and each range is processed concurrently as if it were the whole graph:
+ * a candidate is built for each edge not covered by the candidates built
+ * before it in the same range. The coverage loop stays the deterministic
+ * merge step: it skips the edges already covered by committed paths and
+ * asks {@link #path(int)} for the others, which returns the prebuilt
+ * candidate, or builds the path on the spot for the few edges whose range
+ * skipped them because of a candidate the loop did not commit.</p>
+ *
+ * <p>The result is thus the same as building every path in the loop, while
+ * most of the path construction runs on the pool. With a parallelism of 1
+ * no thread is started and every path is built on demand.</p>
+ */
+public class EdgeCandidates {
+    private static final int RANGES_PER_THREAD = 4;
+
+    private final CompactGraph<?> g;
+    private final PathTables tables;
+    private final ExecutorService pool;
+    private final int rangeSize;
+    private final List<Future<Range>> ranges = new ArrayList<>();
+    private Range current;
+
+    /**
+     * Starts building the candidates of all edges of a snapshot.
+     *
+     * @param g           the frozen graph snapshot of the SUT
+     * @param parallelism the number of threads building candidates, at least 1
+     */
+    public EdgeCandidates(CompactGraph<?> g, int parallelism) {
+        this.g = g;
+        this.tables = g.pathTables();
+        int m = g.edgeCount();
+        if (parallelism <= 1 || m == 0) {
+            this.pool = null;
+            this.rangeSize = Math.max(m, 1);
+            return;
+        }
+        this.pool = TestCaseGenerator.newPool(parallelism, "edge-candidates");
+        int count = Math.min(m, parallelism * RANGES_PER_THREAD);
+        this.rangeSize = (m + count - 1) / count;
+        for (int from = 0; from < m; from += rangeSize) {
+            int lo = from, hi = Math.min(m, from + rangeSize);
+            ranges.add(pool.submit(() -> build(lo, hi)));
+        }
+    }
+
+    /**
+     * Returns the path covering an edge, equal to
+     * {@code g.pathTables().pathCovering(e)}. Edges must be asked for in
+     * increasing order.
+     *
+     * @param e an edge id
+     * @return the vertex ids of the path, or null if the edge is not coverable
+     */
+    public int[] path(int e) {
+        if (pool == null) return tables.pathCovering(e);
+        int index = e / rangeSize;
+        if (current == null || current.index != index) {
+            current = await(index);
+            ranges.set(index, null);
+        }
+        int[] path = current.find(e);
+        return path != null ? path : tables.pathCovering(e);
+    }
+
+    /**
+     * Stops building candidates that are still queued or running.
+     */
+    public void close() {
+        if (pool != null) pool.shutdownNow();
+    }
+
+    /**
+     * Builds the candidates of the edge range [lo, hi), covering edges with
+     * the candidates of earlier edges in the same range only.
+     */
+    private Range build(int lo, int hi) {
+        BitSet covered = new BitSet(g.edgeCount());
+        Range range = new Range(lo / rangeSize);
+        for (int e = covered.nextClearBit(lo); e < hi; e = covered.nextClearBit(e + 1)) {
+            int[] path = tables.pathCovering(e);
+            if (path == null) continue;
+            range.add(e, path);
+            for (int i = 0; i + 1 < path.length; i++) {
+                int id = g.edgeId(path[i], path[i + 1]);
+                if (id >= 0) covered.set(id);
+            }
+        }
+        return range;
+    }
+
+    private Range await(int index) {
+        try {
+            return ranges.get(index).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException("Building edge candidates failed", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building edge candidates", e);
+        }
+    }
+
+    /**
+     * The candidates of one edge range, in increasing edge order.
+     */
+    private static final class Range {
+        final int index;
+        private int[] edges = new int[16];
+        private int[][] paths = new int[16][];
+        private int size = 0;
+        private int cursor = 0;
+
+        Range(int index) {
+            this.index = index;
+        }
+
+        void add(int e, int[] path) {
+            if (size == edges.length) {
+                edges = Arrays.copyOf(edges, size * 2);
+                paths = Arrays.copyOf(paths, size * 2);
+            }
+            edges[size] = e;
+            paths[size++] = path;
+        }
+
+        /**
+         * Returns the candidate of edge {@code e}, or null if none was built.
+         * Lookups must come in increasing edge order.
+         */
+        int[] find(int e) {
+            while (cursor < size && edges[cursor] < e) paths[cursor++] = null;
+            return cursor < size && edges[cursor] == e ? paths[cursor] : null;
+        }
+    }
+}
@@ -1,58 +1,95 @@
-/*
- * Copyright 2025 Neo Tsai
- * 
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- * 
- *     http://www.apache.org/licenses/LICENSE-2.0
- * 
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.example.cpb_test;
-import java.util.*;
-
-import org.jgrapht.Graph;
-import org.jgrapht.graph.DefaultEdge;
-
-/**
- * A concrete TestCaseGenerator that produces test paths achieving
- * edge coverage on the SUT graph.
- *
- * <p>This generator visits each edge in the directed graph exactly once.
- * For every uncovered edge, it builds a path that traverses that edge
- * by calling {@link #buildPathCoveringEdge(Graph, DefaultEdge)} and
- * then marks the edge as covered.</p>
- *
- * @param <V> the vertex type used in the SUT graph
- */
-public class EdgeGenerator <V> extends TestCaseGenerator<V>{
-	
-	/**
-     * Constructs an EdgeGenerator for the given System Under Test.
-     *
-     * @param sut the SUT model containing the directed graph and constraints
-     */
-    public EdgeGenerator(SUT<V> sut) { super(sut); }
-    
-	@Override
-	public List<List<V>> generate() {
-		Set<DefaultEdge> coveredEdges = new HashSet<>();
-		Graph<V, DefaultEdge> g = sut.getGraph();
-		Set<DefaultEdge> edgeSet = g.edgeSet();
-		List<List<V>> admissiblePaths = new ArrayList<>();
-		for(DefaultEdge e: edgeSet) {
-			if(coveredEdges.contains(e)) continue;
-	        List<V> path = new ArrayList<>();
-	        path = buildPathCoveringEdge(g, e);
-	        admissiblePaths.add(path);
-	        markEdges(path, g, coveredEdges);
-		}
-		return admissiblePaths;
-	}
-}
+/*
+ * Copyright 2025 Neo Tsai
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+import java.util.*;
+import java.util.function.Consumer;
+
+
+/**
+ * A concrete TestCaseGenerator that produces test paths achieving
+ * edge coverage on the SUT graph.
+ *
+ * <p>This generator walks the uncovered edge ids of the coverage bit set in
+ * increasing order. For every uncovered edge, it takes the path that traverses that edge
+ * from {@link EdgeCandidates}, which builds the same paths as
+ * {@link #buildPathCoveringEdge(CompactGraph, int)} ahead of time on
+ * {@link #getParallelism()} threads, and then marks the edges of the path as covered.
+ * If the {@link Budget} runs out, it stops and returns the paths built so far.
+ * Each path is final once built, so {@link #generate(Consumer)} hands it over
+ * right away.</p>
+ *
+ * @param <V> the vertex type used in the SUT graph
+ */
+public class EdgeGenerator <V> extends TestCaseGenerator<V>{
+	
+	/**
+     * Constructs an EdgeGenerator for the given System Under Test.
+     *
+     * @param sut the SUT model containing the directed graph and constraints
+     */
+    public EdgeGenerator(SUT<V> sut) { super(sut); }
+    
+	@Override
+	public TestSet<V> generate() {
+		CompactGraph<V> g = sut.freeze();
+		TestSet<V> admissiblePaths = new TestSet<>(g);
+		generate(g, admissiblePaths::add);
+		return admissiblePaths;
+	}
+
+	/**
+	 * Hands each path to the consumer as soon as it is built, without
+	 * keeping the paths.
+	 */
+	@Override
+	public void generate(Consumer<? super List<V>> consumer) {
+		CompactGraph<V> g = sut.freeze();
+		generate(g, path -> consumer.accept(g.toVertices(path)));
+	}
+
+	/**
+	 * Builds the edge-covering paths, passing each one to {@code emit}, and
+	 * records the report from the constraints and edges they cover.
+	 *
+	 * @param g    the frozen graph snapshot of the SUT
+	 * @param emit the consumer receiving the vertex-id paths in order
+	 */
+	private void generate(CompactGraph<V> g, Consumer<int[]> emit) {
+		Budget budget = getBudget();
+		budget.start();
+		boolean truncated = false;
+		BitSet coveredEdges = new BitSet(g.edgeCount());
+		BitSet coveredConstraints = new BitSet(g.constraintCount());
+		EdgeCandidates candidates = new EdgeCandidates(g, getParallelism());
+		try {
+			for(int e = coveredEdges.nextClearBit(0); e < g.edgeCount(); e = coveredEdges.nextClearBit(e + 1)) {
+				if(budget.isExhausted()) {
+					truncated = true;
+					break;
+				}
+		        int[] path = candidates.path(e);
+		        if(path == null) continue;
+		        markEdges(path, g, coveredEdges);
+		        markConstraints(path, g, coveredConstraints);
+		        emit.accept(path);
+			}
+		} finally {
+			candidates.close();
+		}
+		report(g, coveredConstraints, coveredEdges, truncated, false);
+	}
+}
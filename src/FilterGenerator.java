@@ -1,86 +1,133 @@
-/*
- * Copyright 2025 Neo Tsai
- * 
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- * 
- *     http://www.apache.org/licenses/LICENSE-2.0
- * 
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.example.cpb_test;
-
-import java.util.*;
-
-import org.jgrapht.Graph;
-import org.jgrapht.graph.DefaultEdge;
-
-/**
- * Implements the Filter‐based approach to constrained path‐based testing.
- *
- * <p>This generator first obtains a set of paths that achieve edge coverage
- * via {@link #egGenerate()}, then filters out any path that violates
- * the SUT’s constraints (NEGATIVE, ONCE, MAX_ONCE). Remaining paths are
- * guaranteed to cover all edges while respecting the defined constraints.</p>
- *
- * @param <V> the vertex type used in the underlying graph model
- */
-public class FilterGenerator <V> extends TestCaseGenerator<V> {
-	
-    /**
-     * Constructs a FilterGenerator for the specified System Under Test.
-     *
-     * @param sut the SUT model containing the directed graph and constraints
-     */
-    public FilterGenerator(SUT<V> sut) { 
-    	super(sut); 
-    }
-    
-	@Override
-	public List<List<V>> generate() {
-		List<List<V>> admissiblePaths = new ArrayList<>();
-		List<Constraint<V>> C = sut.getConstraints();
-		Set<Constraint<V>> coveredConstraints = new HashSet<>();
-		List<List<V>> testPaths = egGenerate();
-		for(List<V> path : testPaths) {
-			if(isAdmissible(path, C, coveredConstraints)) {
-				markConstraints(path, C, coveredConstraints);
-				admissiblePaths.add(path);
-			}
-		}
-		return admissiblePaths;
-	}
-
-	/**
-     * Builds a path for each uncovered edge in the SUT graph to achieve edge coverage.
-     *
-     * <p>Iterates over all edges in {@code sut.getGraph().edgeSet()}, constructs
-     * a path covering each uncovered edge using
-     * {@link TestCaseGenerator#buildPathCoveringEdge(Graph, DefaultEdge)},
-     * marks edges as covered via {@link #markEdges(List, Graph, Set)}, and
-     * returns the full collection of paths.</p>
-     *
-     * @return a list of vertex sequences, each covering one or more formerly uncovered edges
-     */
-    public List<List<V>> egGenerate() {
-		Set<DefaultEdge> coveredEdges = new HashSet<>();
-		Graph<V, DefaultEdge> g = sut.getGraph();
-		Set<DefaultEdge> edgeSet = g.edgeSet();
-		List<List<V>> admissiblePaths = new ArrayList<>();
-		for(DefaultEdge e: edgeSet) {
-			if(coveredEdges.contains(e)) continue;
-	        List<V> path = new ArrayList<>();
-	        path = buildPathCoveringEdge(g, e);
-	        admissiblePaths.add(path);
-	        markEdges(path, g, coveredEdges);
-		}
-		return admissiblePaths;
-	}
-
-}
+/*
+ * Copyright 2025 Neo Tsai
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+
+/**
+ * Implements the Filter‐based approach to constrained path‐based testing.
+ *
+ * <p>This generator builds the paths that achieve edge coverage
+ * via {@link #egGenerate()} and filters out any path that violates
+ * the SUT’s constraints (NEGATIVE, ONCE, MAX_ONCE) as soon as it is built,
+ * so {@link #generate(Consumer)} can hand over each kept
+ * path right away. Remaining paths are
+ * guaranteed to cover all edges while respecting the defined constraints.</p>
+ *
+ * @param <V> the vertex type used in the underlying graph model
+ */
+public class FilterGenerator <V> extends TestCaseGenerator<V> {
+	
+    /**
+     * Constructs a FilterGenerator for the specified System Under Test.
+     *
+     * @param sut the SUT model containing the directed graph and constraints
+     */
+    public FilterGenerator(SUT<V> sut) { 
+    	super(sut); 
+    }
+    
+	@Override
+	public TestSet<V> generate() {
+		CompactGraph<V> g = sut.freeze();
+		TestSet<V> admissiblePaths = new TestSet<>(g);
+		generate(g, admissiblePaths::add);
+		return admissiblePaths;
+	}
+
+	/**
+	 * Hands each path to the consumer as soon as it has passed the filter,
+	 * without keeping the paths.
+	 */
+	@Override
+	public void generate(Consumer<? super List<V>> consumer) {
+		CompactGraph<V> g = sut.freeze();
+		generate(g, path -> consumer.accept(g.toVertices(path)));
+	}
+
+	/**
+	 * Filters the edge-covering paths as they are built, passing each
+	 * admissible one to {@code emit}, and records the report from the
+	 * constraints and edges the kept paths cover.
+	 *
+	 * @param g    the frozen graph snapshot of the SUT
+	 * @param emit the consumer receiving the kept vertex-id paths in order
+	 */
+	private void generate(CompactGraph<V> g, Consumer<int[]> emit) {
+		getBudget().start();
+		BitSet coveredConstraints = new BitSet(g.constraintCount());
+		BitSet coveredEdges = new BitSet(g.edgeCount());
+		boolean truncated = !coveringPaths(g, path -> {
+			if(isAdmissible(path, g, coveredConstraints)) {
+				markConstraints(path, g, coveredConstraints);
+				markEdges(path, g, coveredEdges);
+				emit.accept(path);
+			}
+		});
+		report(g, coveredConstraints, coveredEdges, truncated, false);
+	}
+
+	/**
+     * Builds a path for each uncovered edge in the SUT graph to achieve edge coverage.
+     *
+     * <p>Iterates over all edge ids of the frozen {@code sut.freeze()} snapshot, constructs
+     * a path covering each uncovered edge using
+     * {@link TestCaseGenerator#buildPathCoveringEdge(CompactGraph, int)}, prebuilt in
+     * parallel by {@link EdgeCandidates},
+     * marks edges as covered via {@link #markEdges(int[], CompactGraph, BitSet)}, and
+     * returns the full collection of paths, or the paths built before the
+     * {@link Budget} ran out.</p>
+     *
+     * @return a list of vertex sequences, each covering one or more formerly uncovered edges
+     */
+    public TestSet<V> egGenerate() {
+		CompactGraph<V> g = sut.freeze();
+		getBudget().start();
+		TestSet<V> admissiblePaths = new TestSet<>(g);
+		coveringPaths(g, admissiblePaths::add);
+		return admissiblePaths;
+	}
+
+    /**
+     * Edge-coverage pass behind {@link #egGenerate()}, working on vertex ids.
+     * Stops early once the {@link Budget} is exhausted.
+     *
+     * @param g               the frozen graph snapshot of the SUT
+     * @param admissiblePaths the consumer receiving the vertex-id paths, one
+     *                        per formerly uncovered edge, as they are built
+     * @return true if every edge was processed, false if the budget ran out
+     */
+    private boolean coveringPaths(CompactGraph<V> g, Consumer<int[]> admissiblePaths) {
+		BitSet coveredEdges = new BitSet(g.edgeCount());
+		EdgeCandidates candidates = new EdgeCandidates(g, getParallelism());
+		try {
+			for(int e = coveredEdges.nextClearBit(0); e < g.edgeCount(); e = coveredEdges.nextClearBit(e + 1)) {
+				if(getBudget().isExhausted()) return false;
+		        int[] path = candidates.path(e);
+		        if(path == null) continue;
+		        markEdges(path, g, coveredEdges);
+		        admissiblePaths.accept(path);
+			}
+		} finally {
+			candidates.close();
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.Arrays;
+
+/**
+ * Residual network for maximum flows and minimum-cost flows over integer
+ * capacities and costs.
+ *
+ * <p>Arcs are stored in arrays, each one followed by its reverse, so the
+ * reverse of arc {@code a} is {@code a ^ 1} and the flow on an arc is the
+ * residual capacity of its reverse. Both algorithms push flow with
+ * Dinic-style blocking flows: a breadth-first search assigns levels, and
+ * augmenting paths follow arcs one level up, each vertex resuming at the
+ * arc it stopped at. Every augmentation, breadth-first search and Dijkstra
+ * step is charged to a {@link Budget}.</p>
+ */
+public class FlowNetwork {
+    /**
+     * Capacity of an uncapacitated arc.
+     */
+    public static final long INFINITE = Long.MAX_VALUE / 4;
+
+    private final int nodes;
+    private final int[] head;
+    private int[] nextArc;
+    private int[] to;
+    private long[] capacity;
+    private long[] cost;
+    private int arcs = 0;
+
+    // scratch arrays of the blocking flow
+    private final int[] level;
+    private final int[] current;
+    private final int[] queue;
+    private final int[] path;
+    private long work;
+
+    /**
+     * Creates a network without arcs.
+     *
+     * @param nodes the number of nodes, numbered from 0
+     */
+    public FlowNetwork(int nodes) {
+        this.nodes = nodes;
+        this.head = new int[nodes];
+        Arrays.fill(head, -1);
+        this.nextArc = new int[16];
+        this.to = new int[16];
+        this.capacity = new long[16];
+        this.cost = new long[16];
+        this.level = new int[nodes];
+        this.current = new int[nodes];
+        this.queue = new int[nodes];
+        this.path = new int[nodes];
+    }
+
+    /**
+     * Adds an uncapacitated arc.
+     *
+     * @param u       the tail node
+     * @param v       the head node
+     * @param arcCost the cost per unit of flow, at least 0
+     * @return the index of the arc
+     */
+    public int addArc(int u, int v, long arcCost) {
+        return addArc(u, v, arcCost, INFINITE);
+    }
+
+    /**
+     * Adds an arc.
+     *
+     * @param u           the tail node
+     * @param v           the head node
+     * @param arcCost     the cost per unit of flow, at least 0
+     * @param arcCapacity the capacity
+     * @return the index of the arc
+     */
+    public int addArc(int u, int v, long arcCost, long arcCapacity) {
+        if (arcs + 2 > to.length) {
+            int length = to.length * 2;
+            nextArc = Arrays.copyOf(nextArc, length);
+            to = Arrays.copyOf(to, length);
+            capacity = Arrays.copyOf(capacity, length);
+            cost = Arrays.copyOf(cost, length);
+        }
+        int a = arcs;
+        link(a, u, v, arcCost, arcCapacity);
+        link(a + 1, v, u, -arcCost, 0);
+        arcs += 2;
+        return a;
+    }
+
+    private void link(int a, int u, int v, long arcCost, long arcCapacity) {
+        to[a] = v;
+        cost[a] = arcCost;
+        capacity[a] = arcCapacity;
+        nextArc[a] = head[u];
+        head[u] = a;
+    }
+
+    /**
+     * Returns the flow on an arc.
+     *
+     * @param a an arc index returned by {@code addArc}
+     * @return the units of flow the arc carries
+     */
+    public long flow(int a) {
+        return capacity[a ^ 1];
+    }
+
+    /**
+     * Removes an arc and its reverse from the residual network, freezing the
+     * flow it carries.
+     *
+     * @param a an arc index returned by {@code addArc}
+     */
+    public void freeze(int a) {
+        capacity[a] = 0;
+        head[to[a]] = unlink(head[to[a]], a ^ 1);
+        head[to[a ^ 1]] = unlink(head[to[a ^ 1]], a);
+    }
+
+    /**
+     * Removes arc {@code a} from the list starting at {@code first} and
+     * returns the new first arc.
+     */
+    private int unlink(int first, int a) {
+        if (first == a) return nextArc[a];
+        for (int b = first; b >= 0; b = nextArc[b]) {
+            if (nextArc[b] == a) {
+                nextArc[b] = nextArc[a];
+                break;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Sends as much flow as possible, up to {@code limit} units, from
+     * {@code s} to {@code t} with Dinic's algorithm, ignoring costs.
+     *
+     * @param s      the source node
+     * @param t      the sink node
+     * @param limit  the maximum number of units to send
+     * @param budget the budget the work is charged to
+     * @return the number of units sent, or -1 if the budget ran out
+     */
+    public long maxFlow(int s, int t, long limit, Budget budget) {
+        long sent = 0;
+        while (sent < limit) {
+            work = 0;
+            long pushed = blockingFlow(s, t, limit - sent, null);
+            if (!budget.charge((int) Math.min(work, Integer.MAX_VALUE))) return -1;
+            if (pushed == 0) break;
+            sent += pushed;
+        }
+        return sent;
+    }
+
+    /**
+     * Sends {@code required} units from {@code s} to {@code t} at minimum
+     * cost with the primal-dual method. Each round runs Dijkstra on the
+     * reduced costs and raises the node potentials by the distances, capped
+     * at the distance of {@code t}, which keeps every reduced cost
+     * non-negative and makes the arcs of all shortest paths tight, i.e. of
+     * reduced cost zero. Blocking flows over the tight arcs then send as much
+     * as they carry, so one Dijkstra serves many augmenting paths. All arc
+     * costs are non-negative initially, so the potentials start at zero.
+     *
+     * @param s        the source node
+     * @param t        the sink node
+     * @param required the number of units to send
+     * @param budget   the budget the work is charged to
+     * @return false if the budget ran out or fewer units could be sent
+     */
+    public boolean minCostFlow(int s, int t, long required, Budget budget) {
+        long[] potential = new long[nodes];
+        long[] dist = new long[nodes];
+        int[] settled = new int[nodes];
+        NodeHeap heap = new NodeHeap(nodes);
+        long sent = 0;
+        for (int round = 1; sent < required; round++) {
+            // Dijkstra on reduced costs, stopped once t is settled
+            Arrays.fill(dist, INFINITE);
+            dist[s] = 0;
+            heap.clear();
+            heap.push(s, 0);
+            work = 0;
+            while (!heap.isEmpty()) {
+                long d = heap.topKey();
+                int u = heap.pop();
+                if (settled[u] == round) continue;
+                settled[u] = round;
+                work++;
+                if (u == t) break;
+                for (int a = head[u]; a >= 0; a = nextArc[a]) {
+                    if (capacity[a] == 0) continue;
+                    int v = to[a];
+                    long nd = d + cost[a] + potential[u] - potential[v];
+                    if (nd < dist[v]) {
+                        dist[v] = nd;
+                        heap.push(v, nd);
+                    }
+                }
+            }
+            if (settled[t] != round) return false;
+            for (int v = 0; v < nodes; v++) {
+                potential[v] += settled[v] == round ? dist[v] : dist[t];
+            }
+
+            // blocking flows over the tight arcs until t is cut off
+            while (sent < required) {
+                long pushed = blockingFlow(s, t, required - sent, potential);
+                if (pushed == 0) break;
+                sent += pushed;
+            }
+            if (!budget.charge((int) Math.min(work, Integer.MAX_VALUE))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Runs one phase of Dinic's algorithm: levels by breadth-first search
+     * over the usable arcs, then augmenting paths along arcs one level up
+     * until {@code t} is cut off or {@code limit} units are sent.
+     *
+     * @param potential the node potentials if only tight arcs are usable,
+     *                  or null if every arc with capacity is
+     * @return the number of units sent, 0 if {@code t} is unreachable
+     */
+    private long blockingFlow(int s, int t, long limit, long[] potential) {
+        Arrays.fill(level, -1);
+        int qHead = 0, qTail = 0;
+        level[s] = 0;
+        queue[qTail++] = s;
+        while (qHead < qTail && level[t] < 0) {
+            int u = queue[qHead++];
+            for (int a = head[u]; a >= 0; a = nextArc[a]) {
+                int v = to[a];
+                if (level[v] < 0 && isUsable(a, potential)) {
+                    level[v] = level[u] + 1;
+                    queue[qTail++] = v;
+                }
+            }
+        }
+        work += qTail;
+        if (level[t] < 0) return 0;
+
+        System.arraycopy(head, 0, current, 0, nodes);
+        long sent = 0;
+        int depth = 0;
+        int u = s;
+        while (sent < limit) {
+            if (u == t) {
+                long push = limit - sent;
+                for (int i = 0; i < depth; i++) push = Math.min(push, capacity[path[i]]);
+                for (int i = 0; i < depth; i++) {
+                    capacity[path[i]] -= push;
+                    capacity[path[i] ^ 1] += push;
+                }
+                sent += push;
+                work += depth;
+                depth = 0;
+                u = s;
+                continue;
+            }
+            int a = current[u];
+            while (a >= 0 && !(level[to[a]] == level[u] + 1 && isUsable(a, potential))) {
+                a = nextArc[a];
+            }
+            current[u] = a;
+            if (a >= 0) {
+                path[depth++] = a;
+                u = to[a];
+            } else if (u == s) {
+                break;
+            } else {
+                // dead end: no later path of this phase enters u
+                level[u] = -1;
+                u = to[path[--depth] ^ 1];
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * Checks whether an arc has residual capacity and, if potentials are
+     * given, zero reduced cost.
+     */
+    private boolean isUsable(int a, long[] potential) {
+        if (capacity[a] == 0) return false;
+        return potential == null || cost[a] + potential[to[a ^ 1]] - potential[to[a]] == 0;
+    }
+
+    /**
+     * Binary min-heap of (node, key) entries; stale entries are skipped by
+     * the caller.
+     */
+    private static final class NodeHeap {
+        private int[] node;
+        private long[] key;
+        private int size = 0;
+
+        NodeHeap(int capacity) {
+            node = new int[Math.max(capacity, 16)];
+            key = new long[node.length];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        long topKey() {
+            return key[0];
+        }
+
+        void push(int v, long k) {
+            if (size == node.length) {
+                node = Arrays.copyOf(node, size * 2);
+                key = Arrays.copyOf(key, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (key[parent] <= k) break;
+                node[i] = node[parent];
+                key[i] = key[parent];
+                i = parent;
+            }
+            node[i] = v;
+            key[i] = k;
+        }
+
+        int pop() {
+            int top = node[0];
+            int lastNode = node[--size];
+            long lastKey = key[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && key[child + 1] < key[child]) child++;
+                if (key[child] >= lastKey) break;
+                node[i] = node[child];
+                key[i] = key[child];
+                i = child;
+            }
+            node[i] = lastNode;
+            key[i] = lastKey;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Summary of one {@link TestCaseGenerator#generate()} call: whether it ran
+ * to completion or was stopped by its {@link Budget}, and which coverage
+ * targets the returned test set leaves uncovered.
+ *
+ * <p>The uncovered constraints are the POSITIVE and ONCE constraints that no
+ * returned path contains; the uncovered edges are the edges no returned path
+ * traverses, each given as its {@code [source, target]} vertex pair. A
+ * complete run may still leave targets uncovered when no admissible path
+ * reaches them.</p>
+ *
+ * <p>A run is approximate when a memory-bounded search dropped part of its
+ * frontier while looking for a path, see {@link BeamSearch}; some paths may
+ * then be longer than needed, and some uncovered constraints may in fact
+ * have an admissible path.</p>
+ *
+ * @param <V> the vertex type used in the SUT graph
+ */
+public class GenerationReport<V> {
+    private final boolean truncated;
+    private final boolean approximate;
+    private final List<Constraint<V>> uncoveredConstraints;
+    private final List<List<V>> uncoveredEdges;
+
+    /**
+     * Creates a report.
+     *
+     * @param truncated            true if the budget stopped the generator
+     * @param approximate          true if a search dropped part of its frontier
+     * @param uncoveredConstraints the POSITIVE and ONCE constraints left uncovered
+     * @param uncoveredEdges       the edges left uncovered, as vertex pairs
+     */
+    public GenerationReport(boolean truncated,
+                            boolean approximate,
+                            List<Constraint<V>> uncoveredConstraints,
+                            List<List<V>> uncoveredEdges) {
+        this.truncated = truncated;
+        this.approximate = approximate;
+        this.uncoveredConstraints = Collections.unmodifiableList(uncoveredConstraints);
+        this.uncoveredEdges = Collections.unmodifiableList(uncoveredEdges);
+    }
+
+    /**
+     * Checks whether the generator was stopped by its budget before it
+     * finished, in which case the test set is a partial one.
+     *
+     * @return true if the run was cut short
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Checks whether the test set was built from searches that dropped part
+     * of their frontier to stay within a memory bound. If not, every search
+     * was exhaustive within its limits.
+     *
+     * @return true if the result is approximate, false if it is exact
+     */
+    public boolean isApproximate() {
+        return approximate;
+    }
+
+    /**
+     * Returns the POSITIVE and ONCE constraints no returned path contains.
+     *
+     * @return an unmodifiable list of constraints, in registration order
+     */
+    public List<Constraint<V>> getUncoveredConstraints() {
+        return uncoveredConstraints;
+    }
+
+    /**
+     * Returns the edges no returned path traverses.
+     *
+     * @return an unmodifiable list of {@code [source, target]} pairs, in edge id order
+     */
+    public List<List<V>> getUncoveredEdges() {
+        return uncoveredEdges;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s, %s, %d constraint(s) and %d edge(s) uncovered",
+                truncated ? "truncated" : "complete",
+                approximate ? "approximate" : "exact",
+                uncoveredConstraints.size(), uncoveredEdges.size());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.Arrays;
+
+/**
+ * Lower bound on the number of edges a path prefix still needs to become a
+ * goal path for one target constraint.
+ *
+ * <p>The bound is the distance to the target's 'from' vertex, then on to its
+ * 'to' vertex, then to the nearest end vertex, skipping the legs the prefix
+ * has already done according to its {@link ConstraintAutomaton} state. The
+ * distances come from reverse breadth-first searches over the graph and
+ * ignore constraints and edge limits, so the bound never overestimates; it
+ * is also consistent, since one edge changes any leg by at most one.</p>
+ */
+public class GoalEstimate {
+    private final CompactGraph<?> g;
+    private final int target;
+    private final ConstraintAutomaton automaton;
+    private final PathTables tables;
+    private final int[] distToFrom;
+    private final int[] distToTo;
+
+    /**
+     * Computes the distance tables for the given target constraint.
+     *
+     * @param g      the frozen graph snapshot of the SUT
+     * @param target the index of the constraint a goal path must contain
+     */
+    public GoalEstimate(CompactGraph<?> g, int target) {
+        this.g = g;
+        this.target = target;
+        this.automaton = g.automaton();
+        this.tables = g.pathTables();
+        this.distToFrom = distancesTo(g, g.constraintFrom(target));
+        this.distToTo = distancesTo(g, g.constraintTo(target));
+    }
+
+    /**
+     * Checks whether any path at all can contain the target, i.e. whether
+     * both of its vertices exist in the graph.
+     *
+     * @return false if the target refers to a vertex outside the graph
+     */
+    public boolean isDefined() {
+        return distToFrom != null && distToTo != null;
+    }
+
+    /**
+     * Returns the lower bound on the edges a prefix still needs.
+     *
+     * @param v     the vertex id the prefix ends at
+     * @param state the state vector of the prefix
+     * @return the bound, or -1 if the prefix cannot be completed into a goal path
+     */
+    public int remaining(int v, byte[] state) {
+        int to = g.constraintTo(target);
+        if (automaton.satisfied(state, target)) {
+            return tables.distToEnd(v);
+        }
+        if (tables.distToEnd(to) < 0) return -1;
+        if (automaton.started(state, target)) {
+            return distToTo[v] < 0 ? -1 : distToTo[v] + tables.distToEnd(to);
+        }
+        int from = g.constraintFrom(target);
+        if (distToFrom[v] < 0 || distToTo[from] < 0) return -1;
+        return distToFrom[v] + distToTo[from] + tables.distToEnd(to);
+    }
+
+    /**
+     * Computes the length of a shortest path from every vertex to {@code w}
+     * with a breadth-first search over incoming edges.
+     *
+     * @param g the graph snapshot
+     * @param w the destination vertex id
+     * @return the distances, -1 for vertices that cannot reach {@code w},
+     *         or null if {@code w} is not a vertex of the graph
+     */
+    private static int[] distancesTo(CompactGraph<?> g, int w) {
+        if (w < 0) return null;
+        int[] dist = new int[g.vertexCount()];
+        Arrays.fill(dist, -1);
+        int[] queue = new int[g.vertexCount()];
+        int head = 0, tail = 0;
+        dist[w] = 0;
+        queue[tail++] = w;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int k = 0; k < g.inDegree(v); k++) {
+                int u = g.source(g.inEdge(v, k));
+                if (dist[u] < 0) {
+                    dist[u] = dist[v] + 1;
+                    queue[tail++] = u;
+                }
+            }
+        }
+        return dist;
+    }
+}
@@ -33,6 +33,18 @@ public class Main {
 	private static boolean saveCSV = false;
 	private static String csvPath = "./result.csv";
 	private static PrintWriter pw;
+	private static int visitLimit = CPCGenerator.DEFAULT_VISIT_LIMIT;
+	private static SearchMode searchMode = SearchMode.BREADTH_FIRST;
+	private static int beamWidth = CPCGenerator.DEFAULT_BEAM_WIDTH;
+	private static int maxPathLength = CPCGenerator.DEFAULT_MAX_PATH_LENGTH;
+	private static int threads = 1;
+	private static ConstraintOrder constraintOrder = ConstraintOrder.FILE_ORDER;
+	private static int multiCoverSlack = -1;
+	private static long timeLimit = -1;
+	private static long maxExpansions = -1;
+	private static boolean postman = false;
+	private static boolean pathCover = false;
+	private static long printNanos = 0;
 	
 	/**
      * Parses command-line arguments, configures logging, CSV output, and visualization,
@@ -42,7 +54,17 @@ public class Main {
      *             -file &lt;path&gt; or -dir &lt;path&gt; to specify input,
      *             -log &lt;file&gt; to enable logging,
      *             -csv &lt;file&gt; to enable CSV output,
-     *             -todot &lt;file&gt; / -topng &lt;file&gt; for graph export.
+     *             -todot &lt;file&gt; / -topng &lt;file&gt; for graph export,
+     *             -visitlimit &lt;n&gt; to set the CPC edge reuse limit,
+     *             -bidirectional or -bestfirst to select the CPC search,
+     *             -beam &lt;width&gt; to use a memory-bounded CPC search,
+     *             -sat &lt;maxlength&gt; to use the SAT-based CPC search,
+     *             -hardestfirst to cover the hardest CPC constraints first,
+     *             -multicover &lt;slack&gt; to cover several constraints per CPC path,
+     *             -threads &lt;n&gt; to set the number of generator threads,
+     *             -timelimit &lt;ms&gt; / -maxexpansions &lt;n&gt; to bound each generation,
+     *             -postman to also run the minimum-length edge coverage generator,
+     *             -pathcover to also run the fewest-paths edge coverage generator.
      * @throws InterruptedException if graph rendering sleep is interrupted
      * @throws IOException if reading or writing any file fails
 	 * @throws FileLoadException 
@@ -88,6 +110,44 @@ public class Main {
 				saveCSV = true;
 				csvPath = args[++i];
 			}
+			else if(args[i].equals("-visitlimit")) {
+				visitLimit = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("-bidirectional")) {
+				searchMode = SearchMode.BIDIRECTIONAL;
+			}
+			else if(args[i].equals("-bestfirst")) {
+				searchMode = SearchMode.BEST_FIRST;
+			}
+			else if(args[i].equals("-beam")) {
+				searchMode = SearchMode.BEAM;
+				beamWidth = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("-sat")) {
+				searchMode = SearchMode.SAT;
+				maxPathLength = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("-hardestfirst")) {
+				constraintOrder = ConstraintOrder.HARDEST_FIRST;
+			}
+			else if(args[i].equals("-multicover")) {
+				multiCoverSlack = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("-threads")) {
+				threads = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("-timelimit")) {
+				timeLimit = Long.parseLong(args[++i]);
+			}
+			else if(args[i].equals("-maxexpansions")) {
+				maxExpansions = Long.parseLong(args[++i]);
+			}
+			else if(args[i].equals("-postman")) {
+				postman = true;
+			}
+			else if(args[i].equals("-pathcover")) {
+				pathCover = true;
+			}
 		}
 		if(filePath == null) {
 			System.out.println("No file specifed, using default SUT.");
@@ -173,15 +233,42 @@ public class Main {
             System.out.println(sut);
             System.out.println();
 
-            TestCaseGenerator<String> cpcGen = new CPCGenerator<>(sut);
+            CPCGenerator<String> cpcGen = new CPCGenerator<>(sut);
+            cpcGen.setVisitLimit(visitLimit);
+            cpcGen.setSearchMode(searchMode);
+            cpcGen.setBeamWidth(beamWidth);
+            cpcGen.setMaxPathLength(maxPathLength);
+            cpcGen.setConstraintOrder(constraintOrder);
+            if(multiCoverSlack >= 0) {
+            	cpcGen.setMultiCover(true);
+            	cpcGen.setLengthSlack(multiCoverSlack);
+            }
+            cpcGen.setParallelism(threads);
+            cpcGen.setBudget(newBudget());
             TestCaseGenerator<String> filterGen = new FilterGenerator<>(sut);
+            filterGen.setParallelism(threads);
+            filterGen.setBudget(newBudget());
             TestCaseGenerator<String> edgeGen = new EdgeGenerator<>(sut);
+            edgeGen.setParallelism(threads);
+            edgeGen.setBudget(newBudget());
             System.out.println("===== CPC Result =====");
             singleTest(sut, cpcGen);
             System.out.println("===== Filter Result =====");
             singleTest(sut, filterGen);
             System.out.println("===== Edge Result =====");
             singleTest(sut, edgeGen);
+            if(postman) {
+            	TestCaseGenerator<String> postmanGen = new PostmanGenerator<>(sut);
+            	postmanGen.setBudget(newBudget());
+            	System.out.println("===== Postman Result =====");
+            	singleTest(sut, postmanGen);
+            }
+            if(pathCover) {
+            	TestCaseGenerator<String> pathCoverGen = new PathCoverGenerator<>(sut);
+            	pathCoverGen.setBudget(newBudget());
+            	System.out.println("===== Path Cover Result =====");
+            	singleTest(sut, pathCoverGen);
+            }
             if(createDot || createPng) {
             	SUTVisualizer<String> viz = new SUTVisualizer<>();
 
@@ -219,6 +306,8 @@ public class Main {
             List<TestCaseGenerator<String>> cpcGen = new ArrayList<>();
             List<TestCaseGenerator<String>> filterGen = new ArrayList<>();
             List<TestCaseGenerator<String>> edgeGen = new ArrayList<>();
+            List<TestCaseGenerator<String>> postmanGen = new ArrayList<>();
+            List<TestCaseGenerator<String>> pathCoverGen = new ArrayList<>();
 
 	        for (String fname : files) {
 	            String path = filePath + File.separator + fname;
@@ -237,9 +326,37 @@ public class Main {
 					continue;
 				}
 	            sutList.add(sut);
-	            cpcGen.add(new CPCGenerator<>(sut));
-	            filterGen.add(new FilterGenerator<>(sut));
-	            edgeGen.add(new EdgeGenerator<>(sut));
+	            CPCGenerator<String> cpc = new CPCGenerator<>(sut);
+	            cpc.setVisitLimit(visitLimit);
+	            cpc.setSearchMode(searchMode);
+	            cpc.setBeamWidth(beamWidth);
+	            cpc.setMaxPathLength(maxPathLength);
+	            cpc.setConstraintOrder(constraintOrder);
+	            if(multiCoverSlack >= 0) {
+	            	cpc.setMultiCover(true);
+	            	cpc.setLengthSlack(multiCoverSlack);
+	            }
+	            cpc.setParallelism(threads);
+	            cpc.setBudget(newBudget());
+	            cpcGen.add(cpc);
+	            FilterGenerator<String> filter = new FilterGenerator<>(sut);
+	            filter.setParallelism(threads);
+	            filter.setBudget(newBudget());
+	            filterGen.add(filter);
+	            EdgeGenerator<String> edge = new EdgeGenerator<>(sut);
+	            edge.setParallelism(threads);
+	            edge.setBudget(newBudget());
+	            edgeGen.add(edge);
+	            if(postman) {
+	            	PostmanGenerator<String> postman = new PostmanGenerator<>(sut);
+	            	postman.setBudget(newBudget());
+	            	postmanGen.add(postman);
+	            }
+	            if(pathCover) {
+	            	PathCoverGenerator<String> pathCover = new PathCoverGenerator<>(sut);
+	            	pathCover.setBudget(newBudget());
+	            	pathCoverGen.add(pathCover);
+	            }
 	        }
 	        System.out.println("Number of cases: " + sutList.size());
             System.out.println("===== CPC Result =====");
@@ -283,28 +400,56 @@ public class Main {
             }
             multiTest(sutList, edgeGen, sutName);
             if(saveCSV) pw.println();
+            
+            if(postman) {
+            	System.out.println("===== Postman Result =====");
+            	if(saveCSV) {
+            		String[] headers = {
+            				"Postman", "valid(T)", "size", "lT", 
+            				"u_edges(T)", "avg(|t|)", "s(T)", 
+            				"eff_edges(T)","cov_cp_positive(T)", 
+            				"cov_cp_once(T)", "cov_cp_negative(T)",
+            				"cov_cp_only-once(T)", "cov_edges(T)", "time[ms]"
+            		};
+            		pw.println(String.join(",", headers));
+            	}
+            	multiTest(sutList, postmanGen, sutName);
+            	if(saveCSV) pw.println();
+            }
+            
+            if(pathCover) {
+            	System.out.println("===== Path Cover Result =====");
+            	if(saveCSV) {
+            		String[] headers = {
+            				"PathCover", "valid(T)", "size", "lT", 
+            				"u_edges(T)", "avg(|t|)", "s(T)", 
+            				"eff_edges(T)","cov_cp_positive(T)", 
+            				"cov_cp_once(T)", "cov_cp_negative(T)",
+            				"cov_cp_only-once(T)", "cov_edges(T)", "time[ms]"
+            		};
+            		pw.println(String.join(",", headers));
+            	}
+            	multiTest(sutList, pathCoverGen, sutName);
+            	if(saveCSV) pw.println();
+            }
 		}
 	}
 	
 	/**
      * Generates and evaluates a SUT using the specified TestCaseGenerator. 
      * Measures execution time, optionally
-     * prints each path, and outputs coverage metrics.
+     * prints each path as soon as the generator hands it over, and outputs coverage metrics.
      *
      * @param sut      the System Under Test model to be tested
      * @param testcase the TestCaseGenerator instance (e.g., CPCGenerator, FilterGenerator, EdgeGenerator)
      */
 	private static void singleTest(SUT<String> sut, TestCaseGenerator<String> testcase) {
-		double t0 = System.nanoTime();
-        List<List<String>> tests = testcase.generate();
-        double timeMs = (System.nanoTime() - t0) * 0.000001;
-        if(showPath) {
-        	System.out.println("Path:");
-        	for(List<String> test : tests) {
-        		System.out.println("  " + test);
-        	}
-        	System.out.println();
-        }
+        if(showPath) System.out.println("Path:");
+        double t0 = System.nanoTime();
+        List<List<String>> tests = collect(sut, testcase);
+        double timeMs = (System.nanoTime() - t0 - printNanos) * 0.000001;
+        if(showPath) System.out.println();
+        printReport("", testcase);
         int valid    = Metrics.valid(sut, tests);
         int size     = Metrics.size(tests);
         int lT       = Metrics.totalEdges(tests);
@@ -363,9 +508,11 @@ public class Main {
         	TestCaseGenerator<String> gen = (TestCaseGenerator<String>) b.next();
         	String name = (String) c.next();
         	
+        	if(showPath) System.out.println("===== " + name + " =====");
         	double t0 = System.nanoTime();
-        	List<List<String>> tests = gen.generate();
-        	double timeMs = (System.nanoTime() - t0) * 0.000001;
+        	List<List<String>> tests = collect(sut, gen);
+        	double timeMs = (System.nanoTime() - t0 - printNanos) * 0.000001;
+        	if(showPath) System.out.println();
         	
         	int valid    = Metrics.valid(sut, tests);
             int size     = Metrics.size(tests);
@@ -386,13 +533,7 @@ public class Main {
 	        avgeff      += eff;
 	        avgcov      += cov;
 	        avgTime     += timeMs;
-	        if(showPath) {
-	        	System.out.println("===== " + name + " =====");
-	        	for(List<String> test : tests) {
-	        		System.out.println("  " + test);
-	        	}
-	        	System.out.println();
-	        }
+	        printReport(name + ": ", gen);
 	        if(saveCSV) {
 	        	String[] row = {
 	                    String.valueOf(name),
@@ -424,6 +565,66 @@ public class Main {
         System.out.println();
 	}
 	
+	/**
+	 * Runs a generator in streaming mode, printing each path as it arrives
+	 * when paths are shown, and collects the paths for the metrics. The time
+	 * spent printing is stored in {@link #printNanos} so that it can be
+	 * left out of the generation time.
+	 *
+	 * @param sut      the System Under Test model the generator works on
+	 * @param testcase the generator to run
+	 * @return the generated paths
+	 */
+	private static TestSet<String> collect(SUT<String> sut, TestCaseGenerator<String> testcase) {
+		TestSet<String> tests = new TestSet<>(sut.freeze());
+		printNanos = 0;
+		testcase.generate(path -> {
+			tests.add(path);
+			if(showPath) {
+				long p0 = System.nanoTime();
+				System.out.println("  " + path);
+				printNanos += System.nanoTime() - p0;
+			}
+		});
+		return tests;
+	}
+	
+	/**
+	 * Creates a budget with the time and expansion limits given on the command line.
+	 *
+	 * @return a new budget for one generator
+	 */
+	private static Budget newBudget() {
+		Budget budget = new Budget();
+		budget.setTimeLimit(timeLimit);
+		budget.setMaxExpansions(maxExpansions);
+		return budget;
+	}
+	
+	/**
+	 * Prints a notice if the last generation of a generator was cut short by
+	 * its budget or is approximate, listing the uncovered constraints when
+	 * paths are shown.
+	 *
+	 * @param prefix   text printed before the notice
+	 * @param testcase the generator whose report is printed
+	 */
+	private static void printReport(String prefix, TestCaseGenerator<String> testcase) {
+		GenerationReport<String> report = testcase.getReport();
+		if(report == null || (!report.isTruncated() && !report.isApproximate())) return;
+		if(report.isTruncated()) {
+			System.out.println(prefix + "Budget exhausted, partial result: " + report);
+		}
+		else {
+			System.out.println(prefix + "Beam search dropped nodes, approximate result: " + report);
+		}
+		if(showPath) {
+			for(Constraint<String> c : report.getUncoveredConstraints()) {
+				System.out.println("  uncovered " + c);
+			}
+		}
+	}
+	
 	/**
 	 * Validates that each constraint in the given SUT refers only to existing vertices.
 	 *
@@ -16,11 +16,7 @@
 
 package com.example.cpb_test;
 
-import org.jgrapht.Graph;
-import org.jgrapht.graph.DefaultEdge;
-
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Utility class offering a suite of static methods to compute metrics
@@ -41,18 +37,12 @@ public class Metrics {
      *          of unsatisfied constraints
      */
     public static <V> int valid(SUT<V> sut, List<List<V>> tests) {
-        List<Constraint<V>> C = sut.getConstraints();
-        Map<Constraint<V>, Integer> occ = new HashMap<>();
-        for (Constraint<V> c : C) occ.put(c, 0);
-        for (List<V> path : tests) {
-            for(Constraint<V> c : C) {
-            	occ.merge(c, containsConstraintRepeatedly(path, c), Integer::sum);
-            }
-        }
+        CompactGraph<V> g = sut.freeze();
+        int[] occ = occurrences(g, toIds(g, tests), true);
         int unsat = 0;
-        for (Constraint<V> c : C) {
-            int n = occ.get(c);
-            switch (c.getType()) {
+        for (int c = 0; c < occ.length; c++) {
+            int n = occ[c];
+            switch (g.constraintType(c)) {
                 case POSITIVE:
                     if (n < 1) unsat++;
                     break;
@@ -100,17 +90,15 @@ public class Metrics {
      * @return the number of distinct edges traversed at least once
      */
     public static <V> int uniqueEdges(SUT<V> sut, List<List<V>> tests) {
-        Graph<V, DefaultEdge> g = sut.getGraph();
-        Set<DefaultEdge> covered = new HashSet<>();
+        CompactGraph<V> g = sut.freeze();
+        BitSet covered = new BitSet(g.edgeCount());
         for (List<V> path : tests) {
             for (int i = 0; i + 1 < path.size(); i++) {
-                DefaultEdge e = g.getEdge(path.get(i), path.get(i+1));
-                //System.out.println(e);
-                if (e != null) covered.add(e);
-
+                int e = g.edgeId(path.get(i), path.get(i+1));
+                if (e >= 0) covered.set(e);
             }
         }
-        return covered.size();
+        return covered.cardinality();
     }
 
     /**
@@ -165,7 +153,7 @@ public class Metrics {
      */
     public static <V> double edgeCoverage(SUT<V> sut, List<List<V>> tests) {
         int u = uniqueEdges(sut, tests);
-        int all = sut.getGraph().edgeSet().size();
+        int all = sut.freeze().edgeCount();
         return all == 0 ? 0.0 : (double) u / all;
     }
 
@@ -178,8 +166,7 @@ public class Metrics {
      *          or -1.0 if no POSITIVE constraints are defined
      */
     public static <V> double covPositive(SUT<V> sut, List<List<V>> tests) {
-        return covConstraintType(sut, tests, ConstraintType.POSITIVE,
-            c -> totalOcc(tests, c) >= 1);
+        return covConstraintType(sut, tests, ConstraintType.POSITIVE, n -> n >= 1);
     }
 
     /**
@@ -191,8 +178,7 @@ public class Metrics {
      *          or -1.0 if no ONCE constraints are defined
      */
     public static <V> double covOnce(SUT<V> sut, List<List<V>> tests) {
-        return covConstraintType(sut, tests, ConstraintType.ONCE,
-            c -> totalOcc(tests, c) == 1);
+        return covConstraintType(sut, tests, ConstraintType.ONCE, n -> n == 1);
     }
 
     /**
@@ -204,8 +190,7 @@ public class Metrics {
      *          or -1.0 if no NEGATIVE constraints are defined
      */
     public static <V> double covNegative(SUT<V> sut, List<List<V>> tests) {
-    	return covConstraintType(sut, tests, ConstraintType.NEGATIVE,
-                c -> totalOcc(tests, c) >= 1);
+    	return covConstraintType(sut, tests, ConstraintType.NEGATIVE, n -> n >= 1);
     }
     
     /**
@@ -217,69 +202,103 @@ public class Metrics {
      *          or -1.0 if no MAX_ONCE constraints are defined
      */
     public static <V> double covMaxOnce(SUT<V> sut, List<List<V>> tests) {
-        return covConstraintType(sut, tests, ConstraintType.MAX_ONCE,
-            c -> totalOcc(tests, c) <= 1);
+        return covConstraintType(sut, tests, ConstraintType.MAX_ONCE, n -> n <= 1);
     }
 
     /**
-     * Checks if the given path contains the specified constraint sequence.
+     * Translates every test path to vertex ids of the SUT snapshot. A
+     * {@link TestSet} over the same snapshot already holds the ids and is
+     * read directly.
      *
-     * @param path       a single test path as a sequence of vertices
-     * @param constraint the constraint pairing two vertices
-     * @return the number of times the 'from'→'to' sequence occurs in order
+     * @param g     the frozen snapshot of the SUT
+     * @param tests the list of test paths
+     * @return the test paths as vertex-id arrays
      */
-	private static <V> boolean containsConstraint(List<V> path, Constraint<V> c) {
-    	boolean from = false, to = false;
-        for (int i = 0; i < path.size(); i++) {
-            if(path.get(i).equals(c.getFrom())) from = true;
-            else if (path.get(i).equals(c.getTo()) && from) to = true;
+    private static <V> List<int[]> toIds(CompactGraph<V> g, List<List<V>> tests) {
+        if (tests instanceof TestSet && ((TestSet<?>) tests).graph() == g) {
+            return ((TestSet<?>) tests).idPaths();
         }
-        return from && to;
-    }
-    private static <V> int containsConstraintRepeatedly(List<V> path, Constraint<V> c) {
-    	int from = 0, to = 0;
-        for (int i = 0; i < path.size(); i++) {
-            if(path.get(i).equals(c.getFrom())) from ++;
-            else if (path.get(i).equals(c.getTo()) && from > to) to++;
+        List<int[]> paths = new ArrayList<>(tests.size());
+        for (List<V> path : tests) {
+            paths.add(g.toIds(path));
         }
-        return to;
+        return paths;
     }
     
     /**
-     * Counts total occurrences of a constraint across all test paths.
+     * Counts the occurrences of every constraint across all test paths in a
+     * single pass per path.
      *
-     * @param tests      the list of test paths
-     * @param constraint the constraint pairing two vertices
-     * @return the sum of occurrences in each path
+     * <p>Each path vertex only advances the counters of the constraints it
+     * appears in, looked up through the vertex-to-constraint index of the
+     * snapshot, so the cost is proportional to the path length plus the
+     * constraints actually touched rather than to paths × constraints.</p>
+     *
+     * @param g        the frozen snapshot of the SUT
+     * @param paths    the test paths as vertex-id arrays
+     * @param repeated if true, sum the number of matched 'from'→'to'
+     *                 occurrences inside each path; otherwise count the
+     *                 paths containing the constraint at least once
+     * @return the occurrence count of each constraint, by constraint index
      */
-    private static <V> int totalOcc(List<List<V>> tests, Constraint<V> c) {
-        int cnt = 0;
-        for (List<V> path : tests) {
-           if(containsConstraint(path, c)) cnt++;
+    private static <V> int[] occurrences(CompactGraph<V> g, List<int[]> paths, boolean repeated) {
+        int n = g.constraintCount();
+        int[] occ = new int[n];
+        int[] nFrom = new int[n];
+        int[] nTo = new int[n];
+        int[] touched = new int[n];
+        int[] seenIn = new int[n];
+        int stamp = 0;
+        for (int[] path : paths) {
+            int t = 0;
+            stamp++;
+            for (int v : path) {
+                if (v < 0) continue;
+                for (int k = 0; k < g.constraintDegree(v); k++) {
+                    int c = g.constraintOf(v, k);
+                    if (seenIn[c] != stamp) {
+                        seenIn[c] = stamp;
+                        touched[t++] = c;
+                    }
+                    if (v == g.constraintFrom(c)) nFrom[c]++;
+                    else if (nFrom[c] > nTo[c]) nTo[c]++;
+                }
+            }
+            for (int i = 0; i < t; i++) {
+                int c = touched[i];
+                occ[c] += repeated ? nTo[c] : (nTo[c] > 0 ? 1 : 0);
+                nFrom[c] = 0;
+                nTo[c] = 0;
+            }
         }
-        return cnt;
+        return occ;
     }
 
     /**
      * Computes the coverage ratio for constraints of a specific type.
      *
-     * @param sut     the System Under Test model containing constraints
-     * @param tests   the list of test paths
-     * @param type    the constraint type to evaluate
-     * @param checker a predicate that returns true if a given constraint is satisfied
+     * @param sut   the System Under Test model containing constraints
+     * @param tests the list of test paths
+     * @param type  the constraint type to evaluate
+     * @param sat   a predicate on the number of paths containing a constraint
+     *              that returns true if the constraint is satisfied
      * @return the fraction of constraints of the given type that satisfy the predicate,
      *         or -1.0 if no constraints of that type exist
      */
     private static <V> double covConstraintType(SUT<V> sut,
         List<List<V>> tests,
         ConstraintType type,
-        java.util.function.Predicate<Constraint<V>> sat) {
+        java.util.function.IntPredicate sat) {
 
-        List<Constraint<V>> list = sut.getConstraints().stream()
-            .filter(c -> c.getType() == type)
-            .collect(Collectors.toList());
-        if (list.isEmpty()) return -1;
-        long satCount = list.stream().filter(sat).count();
-        return (double) satCount / list.size();
+        CompactGraph<V> g = sut.freeze();
+        int[] occ = occurrences(g, toIds(g, tests), false);
+        int total = 0, satCount = 0;
+        for (int c = 0; c < g.constraintCount(); c++) {
+            if (g.constraintType(c) != type) continue;
+            total++;
+            if (sat.test(occ[c])) satCount++;
+        }
+        if (total == 0) return -1;
+        return (double) satCount / total;
     }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.Arrays;
+
+/**
+ * Set of vertex-id paths, used to keep a generator from emitting the same
+ * path twice.
+ *
+ * <p>Each path is stored with a 64-bit hash of its vertex sequence, computed
+ * once when the path is looked up or added. Paths live in an open-addressing
+ * table indexed by that hash, and two paths are compared element by element
+ * only when their hashes are equal, so a lookup takes time proportional to
+ * the path length instead of to the size of the set.</p>
+ */
+public class PathSet {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[][] paths = new int[INITIAL_CAPACITY / 2][];
+    private long[] hashes = new long[INITIAL_CAPACITY / 2];
+    private int size = 0;
+    // indices into paths, -1 for an empty slot
+    private int[] table = new int[INITIAL_CAPACITY];
+
+    /**
+     * Creates an empty set.
+     */
+    public PathSet() {
+        Arrays.fill(table, -1);
+    }
+
+    /**
+     * Checks whether a path with the same vertex sequence is in the set.
+     *
+     * @param path the vertex ids of a path
+     * @return true if an equal path is present
+     */
+    public boolean contains(int[] path) {
+        long hash = hash(path);
+        return table[find(path, hash)] >= 0;
+    }
+
+    /**
+     * Adds a path unless a path with the same vertex sequence is present.
+     * The array is stored by reference and must not be modified afterwards.
+     *
+     * @param path the vertex ids of a path
+     * @return true if the path was added, false if an equal path was present
+     */
+    public boolean add(int[] path) {
+        long hash = hash(path);
+        int slot = find(path, hash);
+        if (table[slot] >= 0) return false;
+        if (size == paths.length) {
+            paths = Arrays.copyOf(paths, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        paths[size] = path;
+        hashes[size] = hash;
+        table[slot] = size++;
+        if (size * 2 > table.length) grow();
+        return true;
+    }
+
+    /**
+     * Returns the number of paths in the set.
+     *
+     * @return the path count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the slot holding a path equal to {@code path}, or the empty
+     * slot where it belongs.
+     */
+    private int find(int[] path, long hash) {
+        int mask = table.length - 1;
+        int i = (int) (hash ^ (hash >>> 32)) & mask;
+        for (; table[i] >= 0; i = (i + 1) & mask) {
+            int other = table[i];
+            if (hashes[other] == hash && Arrays.equals(paths[other], path)) break;
+        }
+        return i;
+    }
+
+    /**
+     * Doubles the table and reinserts every path.
+     */
+    private void grow() {
+        table = new int[table.length * 2];
+        Arrays.fill(table, -1);
+        int mask = table.length - 1;
+        for (int k = 0; k < size; k++) {
+            int i = (int) (hashes[k] ^ (hashes[k] >>> 32)) & mask;
+            while (table[i] >= 0) i = (i + 1) & mask;
+            table[i] = k;
+        }
+    }
+
+    /**
+     * Returns a 64-bit hash of a vertex sequence.
+     *
+     * @param path the vertex ids of a path
+     * @return the hash of the sequence
+     */
+    public static long hash(int[] path) {
+        long h = path.length;
+        for (int v : path) {
+            h = (h + v) * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 29;
+        }
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.Arrays;
+
+/**
+ * Reachability index of a {@link CompactGraph}, built on its strongly
+ * connected component (SCC) condensation.
+ *
+ * <p>The index tracks a small set of <em>landmarks</em>: the end vertices,
+ * taken together as one landmark, and every vertex that appears in a
+ * constraint. Each component stores a bit set of the landmarks reachable from
+ * it, computed in one pass over the condensation in reverse topological order.
+ * A query "can {@code v} still reach landmark {@code w}" is then a single bit
+ * test, which lets the searches prune successors that lead into dead-end
+ * regions of the SUT.</p>
+ *
+ * <p>Keeping the bit sets over landmarks instead of over all components
+ * bounds the memory to {@code components × (2|C| + 1)} bits.</p>
+ */
+public class ReachabilityIndex {
+    private static final int END_SLOT = 0;
+
+    private final int[] component;
+    private final int componentCount;
+    private final int[] slot;
+    private final int words;
+    private final long[] reach;
+
+    /**
+     * Builds the index for the given snapshot.
+     *
+     * @param g the frozen graph snapshot of the SUT
+     */
+    public ReachabilityIndex(CompactGraph<?> g) {
+        int n = g.vertexCount();
+        component = new int[n];
+        componentCount = tarjan(g, component);
+
+        slot = new int[n];
+        Arrays.fill(slot, -1);
+        int slots = 1;
+        for (int c = 0; c < g.constraintCount(); c++) {
+            for (int v : new int[] { g.constraintFrom(c), g.constraintTo(c) }) {
+                if (v >= 0 && slot[v] < 0) slot[v] = slots++;
+            }
+        }
+        words = (slots + 63) >>> 6;
+        reach = new long[componentCount * words];
+
+        // each component reaches the landmarks it contains
+        for (int v = 0; v < n; v++) {
+            int base = component[v] * words;
+            if (slot[v] >= 0) reach[base + (slot[v] >>> 6)] |= 1L << slot[v];
+        }
+        for (int k = 0; k < g.endCount(); k++) {
+            reach[component[g.endVertex(k)] * words] |= 1L << END_SLOT;
+        }
+
+        // Tarjan numbers components in reverse topological order, so all
+        // successors of component c have been completed before c
+        int[] members = new int[n];
+        int[] offset = new int[componentCount + 1];
+        for (int v = 0; v < n; v++) offset[component[v] + 1]++;
+        for (int c = 0; c < componentCount; c++) offset[c + 1] += offset[c];
+        int[] fill = Arrays.copyOf(offset, componentCount);
+        for (int v = 0; v < n; v++) members[fill[component[v]]++] = v;
+
+        for (int c = 0; c < componentCount; c++) {
+            int base = c * words;
+            for (int i = offset[c]; i < offset[c + 1]; i++) {
+                int u = members[i];
+                for (int k = 0; k < g.outDegree(u); k++) {
+                    int d = component[g.target(g.outEdge(u, k))];
+                    if (d == c) continue;
+                    int other = d * words;
+                    for (int w = 0; w < words; w++) {
+                        reach[base + w] |= reach[other + w];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Labels every vertex with its strongly connected component using an
+     * iterative version of Tarjan's algorithm.
+     *
+     * @param g         the graph snapshot
+     * @param component output array receiving the component of each vertex
+     * @return the number of components
+     */
+    private static int tarjan(CompactGraph<?> g, int[] component) {
+        int n = g.vertexCount();
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] next = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] call = new int[n];
+        Arrays.fill(index, -1);
+        int counter = 0, top = 0, components = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) continue;
+            int depth = 0;
+            call[depth++] = root;
+            index[root] = low[root] = counter++;
+            stack[top++] = root;
+            onStack[root] = true;
+            next[root] = 0;
+            while (depth > 0) {
+                int u = call[depth - 1];
+                if (next[u] < g.outDegree(u)) {
+                    int v = g.target(g.outEdge(u, next[u]++));
+                    if (index[v] < 0) {
+                        index[v] = low[v] = counter++;
+                        stack[top++] = v;
+                        onStack[v] = true;
+                        next[v] = 0;
+                        call[depth++] = v;
+                    } else if (onStack[v]) {
+                        low[u] = Math.min(low[u], index[v]);
+                    }
+                } else {
+                    depth--;
+                    if (low[u] == index[u]) {
+                        int w;
+                        do {
+                            w = stack[--top];
+                            onStack[w] = false;
+                            component[w] = components;
+                        } while (w != u);
+                        components++;
+                    }
+                    if (depth > 0) {
+                        int p = call[depth - 1];
+                        low[p] = Math.min(low[p], low[u]);
+                    }
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Returns the number of strongly connected components.
+     *
+     * @return the component count
+     */
+    public int componentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Returns the strongly connected component of a vertex. Components are
+     * numbered in reverse topological order of the condensation.
+     *
+     * @param v a vertex id
+     * @return the component index
+     */
+    public int componentOf(int v) {
+        return component[v];
+    }
+
+    /**
+     * Checks whether some end vertex is reachable from {@code v}.
+     *
+     * @param v a vertex id
+     * @return true if an end vertex can be reached, including {@code v} itself
+     */
+    public boolean canReachEnd(int v) {
+        return (reach[component[v] * words] & (1L << END_SLOT)) != 0;
+    }
+
+    /**
+     * Checks whether constraint vertex {@code w} is reachable from {@code v}.
+     *
+     * @param v a vertex id
+     * @param w the id of a vertex that appears in some constraint
+     * @return true if {@code w} can be reached from {@code v}, including
+     *         {@code v == w}; false if {@code w} is not a constraint vertex
+     */
+    public boolean canReach(int v, int w) {
+        if (w < 0 || slot[w] < 0) return false;
+        int s = slot[w];
+        return (reach[component[v] * words + (s >>> 6)] & (1L << s)) != 0;
+    }
+}
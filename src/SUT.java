@@ -38,6 +38,8 @@ public class SUT<V> {
     private final List<Constraint<V>> constraints;
     private V startVertex = null;
     private final Set<V> endVertices;
+    private final SymbolTable<V> symbols;
+    private CompactGraph<V> snapshot = null;
 
     /**
      * Initializes a new SUT instance backed by a {@link SimpleDirectedGraph},
@@ -47,15 +49,38 @@ public class SUT<V> {
         this.graph = new SimpleDirectedGraph<>(DefaultEdge.class);
         this.constraints = new ArrayList<>();
         this.endVertices = new HashSet<>();
+        this.symbols = new SymbolTable<>();
     }
 
     /**
-     * Adds the given vertex to the graph if not already present. 
+     * Adds the given vertex to the graph if not already present, and interns
+     * it in the vertex symbol table.
      *
      * @param v the vertex to add
      */
     public void addVertex(V v) {
-        graph.addVertex(v);
+        symbols.intern(v);
+        if (graph.addVertex(v)) snapshot = null;
+    }
+
+    /**
+     * Returns the dense integer id of the given vertex.
+     *
+     * @param v the vertex to look up
+     * @return the id of {@code v}, or -1 if it was never added to this SUT
+     */
+    public int indexOf(V v) {
+        return symbols.indexOf(v);
+    }
+
+    /**
+     * Returns the vertex with the given dense integer id.
+     *
+     * @param id a vertex id previously returned by {@link #indexOf(Object)}
+     * @return the vertex with that id
+     */
+    public V vertexAt(int id) {
+        return symbols.symbolAt(id);
     }
 
     /**
@@ -67,6 +92,7 @@ public class SUT<V> {
     public void setStartVertex(V v) {
         addVertex(v);
         this.startVertex = v;
+        snapshot = null;
     }
     
     /**
@@ -86,7 +112,7 @@ public class SUT<V> {
      */
     public void addEndVertex(V v) {
         addVertex(v);
-        this.endVertices.add(v);
+        if (this.endVertices.add(v)) snapshot = null;
     }
     
     /**
@@ -107,6 +133,7 @@ public class SUT<V> {
      */
     public void addEdge(V from, V to) {
         graph.addEdge(from, to);
+        snapshot = null;
     }
 
     /**
@@ -117,6 +144,7 @@ public class SUT<V> {
      */
     public void addConstraint(Constraint<V> c) {
         constraints.add(c);
+        snapshot = null;
     }
 
     /**
@@ -128,6 +156,28 @@ public class SUT<V> {
         return graph;
     }
 
+    /**
+     * Returns an immutable integer-indexed snapshot of the graph, start and
+     * end vertices and constraints, suitable for the search loops of the
+     * generators. Vertex ids in the snapshot are the ids of the vertex
+     * symbol table, see {@link #indexOf(Object)}.
+     *
+     * <p>The snapshot is built on first use and cached until the SUT is
+     * modified through one of its mutators. Changes made directly on the
+     * graph returned by {@link #getGraph()} are not tracked.</p>
+     *
+     * @return the current {@link CompactGraph} snapshot of this SUT
+     */
+    public synchronized CompactGraph<V> freeze() {
+        if (snapshot == null) {
+            for (V v : graph.vertexSet()) {
+                symbols.intern(v);
+            }
+            snapshot = new CompactGraph<>(this, symbols);
+        }
+        return snapshot;
+    }
+
     /**
      * Returns an unmodifiable list of all registered constraints.
      *
@@ -137,6 +187,26 @@ public class SUT<V> {
         return Collections.unmodifiableList(constraints);
     }
 
+    /**
+     * Returns the constraints in which the given vertex appears as 'from' or
+     * 'to', in registration order. The lookup goes through the inverted index
+     * of the {@link #freeze() snapshot}, see {@link CompactGraph#constraintOf(int, int)}.
+     *
+     * @param v the vertex to look up
+     * @return an unmodifiable list of the constraints touching {@code v},
+     *         empty if there are none or the vertex is unknown
+     */
+    public List<Constraint<V>> getConstraintsOf(V v) {
+        CompactGraph<V> g = freeze();
+        int id = g.idOf(v);
+        if (id < 0) return Collections.emptyList();
+        List<Constraint<V>> touching = new ArrayList<>(g.constraintDegree(id));
+        for (int k = 0; k < g.constraintDegree(id); k++) {
+            touching.add(constraints.get(g.constraintOf(id, k)));
+        }
+        return Collections.unmodifiableList(touching);
+    }
+
     /**
      * Returns a string summary of the SUT, including counts of vertices,
      * edges, constraints, and the current start and end vertices.
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Bounded-length search for an admissible path that contains a target
+ * constraint, encoded as a satisfiability problem and solved by
+ * {@link SatSolver}.
+ *
+ * <p>A path of at most {@code maxLength} edges is laid out over positions
+ * {@code 0..maxLength}. Each position has a variable per vertex that may
+ * occupy it, judged by the distances of {@link PathTables}, and an 'alive'
+ * variable that is true while the path has not ended yet. Clauses keep at
+ * most one vertex per position, join consecutive vertices by an edge, end
+ * the path at its first end vertex after the start, as
+ * {@link AdmissibleSearch} does, and forbid it to end anywhere else.</p>
+ *
+ * <p>The constraint automata of {@link ConstraintAutomaton} are unrolled
+ * over the positions for the target and for every NEGATIVE, ONCE and
+ * MAX_ONCE constraint, the only ones a path can violate. Their 'from' and
+ * 'to' counters saturate at two, so each counter level becomes one
+ * monotone variable per position, and a final unit clause demands the
+ * target matched and the other constraints not over-matched. Other
+ * constraints add no clauses.</p>
+ *
+ * <p>Clause learning lets the solver refute a combination of constraints
+ * that no short path satisfies without enumerating the paths, which is
+ * where the breadth-first searches spend their budget. Once a path is
+ * found, the search asks for shorter ones under assumptions, reusing the
+ * learned clauses, until none is left, so the result is a shortest
+ * admissible path of at most {@code maxLength} edges. Edge reuse is not
+ * limited: the length bound takes the place of the visit limit.</p>
+ */
+public class SatSearch {
+    private final CompactGraph<?> g;
+    private final int target;
+    private final BitSet covered;
+    private final int maxLength;
+    private final SatSolver solver;
+
+    // vars[i][v]: the variable of vertex v at position i, 0 if v cannot be there
+    private int[][] vars;
+    // candidates[i]: the vertices that may occupy position i
+    private int[][] candidates;
+    // alive[i]: true if the path has a vertex at position i
+    private int[] alive;
+
+    /**
+     * Creates the search for the given target constraint.
+     *
+     * @param g         the frozen graph snapshot of the SUT
+     * @param target    the index of the constraint the path must contain
+     * @param covered   the indices of constraints already covered by previous paths
+     * @param maxLength the maximum number of edges of the path, at least 1
+     * @param budget    the budget solver decisions and conflicts are charged to
+     */
+    public SatSearch(CompactGraph<?> g, int target, BitSet covered, int maxLength, Budget budget) {
+        this.g = g;
+        this.target = target;
+        this.covered = covered;
+        this.maxLength = maxLength;
+        this.solver = new SatSolver(budget);
+    }
+
+    /**
+     * Runs the search.
+     *
+     * @return the vertex ids of a shortest admissible path from start to an
+     *         end vertex that contains the target, or null if there is none
+     *         of at most {@code maxLength} edges or the budget ran out
+     */
+    public int[] find() {
+        if (g.startVertex() < 0) return null;
+        encodePaths();
+        encodeConstraints();
+        if (!solver.solve()) return null;
+        int[] best = decode();
+        // a shorter path leaves position best.length - 1 empty
+        while (best.length > 2 && solver.solve(-alive[best.length - 1])) {
+            best = decode();
+        }
+        return best;
+    }
+
+    /**
+     * Adds the variables and clauses describing a start-to-end path.
+     */
+    private void encodePaths() {
+        int n = g.vertexCount();
+        PathTables tables = g.pathTables();
+        vars = new int[maxLength + 1][];
+        candidates = new int[maxLength + 1][];
+        alive = new int[maxLength + 1];
+
+        for (int i = 0; i <= maxLength; i++) {
+            vars[i] = new int[n];
+            List<Integer> list = new ArrayList<>();
+            if (i == 0) {
+                list.add(g.startVertex());
+            } else {
+                for (int v = 0; v < n; v++) {
+                    int before = tables.distFromStart(v);
+                    int after = tables.distToEnd(v);
+                    if (before >= 0 && before <= i && after >= 0 && after <= maxLength - i) {
+                        list.add(v);
+                    }
+                }
+            }
+            candidates[i] = new int[list.size()];
+            for (int k = 0; k < candidates[i].length; k++) {
+                candidates[i][k] = list.get(k);
+                vars[i][candidates[i][k]] = solver.newVar();
+            }
+            alive[i] = solver.newVar();
+        }
+
+        for (int i = 0; i <= maxLength; i++) {
+            int[] here = candidates[i];
+            // alive[i] holds exactly when some vertex occupies position i
+            int[] any = new int[here.length + 1];
+            any[0] = -alive[i];
+            for (int k = 0; k < here.length; k++) {
+                any[k + 1] = vars[i][here[k]];
+                solver.addClause(-vars[i][here[k]], alive[i]);
+            }
+            solver.addClause(any);
+            atMostOne(i);
+            if (i > 0) solver.addClause(-alive[i], alive[i - 1]);
+        }
+        solver.addClause(alive[0]);
+        solver.addClause(alive[1]);
+
+        for (int i = 0; i <= maxLength; i++) {
+            for (int u : candidates[i]) {
+                int x = vars[i][u];
+                if (i > 0 && g.isEnd(u)) {
+                    // the first end vertex after the start closes the path
+                    if (i < maxLength) solver.addClause(-x, -alive[i + 1]);
+                    continue;
+                }
+                if (i == maxLength) {
+                    solver.addClause(-x);
+                    continue;
+                }
+                // any other vertex is followed by one of its successors
+                List<Integer> next = new ArrayList<>();
+                next.add(-x);
+                for (int k = 0; k < g.outDegree(u); k++) {
+                    int w = vars[i + 1][g.target(g.outEdge(u, k))];
+                    if (w != 0 && !next.contains(w)) next.add(w);
+                }
+                solver.addClause(toArray(next));
+            }
+            if (i == 0) continue;
+            // and every vertex after the start follows one of its predecessors
+            for (int v : candidates[i]) {
+                List<Integer> prev = new ArrayList<>();
+                prev.add(-vars[i][v]);
+                for (int k = 0; k < g.inDegree(v); k++) {
+                    int u = g.source(g.inEdge(v, k));
+                    int w = vars[i - 1][u];
+                    if (w != 0 && (i == 1 || !g.isEnd(u)) && !prev.contains(w)) prev.add(w);
+                }
+                solver.addClause(toArray(prev));
+            }
+        }
+    }
+
+    /**
+     * Allows at most one vertex at position {@code i}, with the sequential
+     * counter encoding: {@code s[k]} is true if one of the first {@code k + 1}
+     * candidates is chosen.
+     */
+    private void atMostOne(int i) {
+        int[] here = candidates[i];
+        if (here.length < 2) return;
+        int prev = 0;
+        for (int k = 0; k < here.length; k++) {
+            int x = vars[i][here[k]];
+            if (k > 0) solver.addClause(-x, -prev);
+            if (k == here.length - 1) break;
+            int s = solver.newVar();
+            solver.addClause(-x, s);
+            if (k > 0) solver.addClause(-prev, s);
+            prev = s;
+        }
+    }
+
+    /**
+     * Unrolls the automata of the target and of the constraints a path can
+     * violate, and demands the accepting outcome of each.
+     */
+    private void encodeConstraints() {
+        for (int c = 0; c < g.constraintCount(); c++) {
+            ConstraintType type = g.constraintType(c);
+            boolean bounded = type == ConstraintType.ONCE || type == ConstraintType.MAX_ONCE;
+            if (c != target && type != ConstraintType.NEGATIVE && !bounded) continue;
+
+            int from = g.constraintFrom(c);
+            int to = g.constraintTo(c);
+            // counter levels so far: from >= 1, from >= 2, matched >= 1, matched >= 2;
+            // 0 stands for a level that cannot have been reached
+            int from1 = 0, from2 = 0, matched1 = 0, matched2 = 0;
+            for (int i = 0; i <= maxLength; i++) {
+                int isFrom = vars[i][from];
+                // a vertex that is both 'from' and 'to' counts as 'from'
+                int isTo = to == from ? 0 : vars[i][to];
+                int nextFrom2 = or(from2, and(from1, isFrom));
+                int nextMatched1 = or(matched1, and(from1, isTo));
+                int nextMatched2 = or(matched2, and(and(matched1, from2), isTo));
+                from1 = or(from1, isFrom);
+                from2 = nextFrom2;
+                matched1 = nextMatched1;
+                matched2 = nextMatched2;
+            }
+
+            if (c == target) require(matched1);
+            if (type == ConstraintType.NEGATIVE || (bounded && covered.get(c))) {
+                forbid(matched1);
+            } else if (bounded) {
+                forbid(matched2);
+            }
+        }
+    }
+
+    /**
+     * Returns a literal equal to {@code a || b}, where 0 is false.
+     */
+    private int or(int a, int b) {
+        if (a == 0) return b;
+        if (b == 0) return a;
+        int y = solver.newVar();
+        solver.addClause(-a, y);
+        solver.addClause(-b, y);
+        solver.addClause(-y, a, b);
+        return y;
+    }
+
+    /**
+     * Returns a literal equal to {@code a && b}, where 0 is false.
+     */
+    private int and(int a, int b) {
+        if (a == 0 || b == 0) return 0;
+        int y = solver.newVar();
+        solver.addClause(-y, a);
+        solver.addClause(-y, b);
+        solver.addClause(y, -a, -b);
+        return y;
+    }
+
+    private void require(int a) {
+        if (a == 0) {
+            solver.addClause();
+        } else {
+            solver.addClause(a);
+        }
+    }
+
+    private void forbid(int a) {
+        if (a != 0) solver.addClause(-a);
+    }
+
+    /**
+     * Reads the path off the last model.
+     */
+    private int[] decode() {
+        int length = 0;
+        while (length <= maxLength && solver.modelValue(alive[length])) length++;
+        int[] path = new int[length];
+        for (int i = 0; i < length; i++) {
+            for (int v : candidates[i]) {
+                if (solver.modelValue(vars[i][v])) {
+                    path[i] = v;
+                    break;
+                }
+            }
+        }
+        return path;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int k = 0; k < array.length; k++) array[k] = list.get(k);
+        return array;
+    }
+}
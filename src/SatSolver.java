@@ -0,0 +1,524 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A small conflict-driven clause-learning (CDCL) SAT solver.
+ *
+ * <p>Variables are numbered from 1 and literals are given as in the DIMACS
+ * format, {@code v} for a variable and {@code -v} for its negation. The
+ * solver follows the MiniSat design: two watched literals per clause for
+ * unit propagation, first-UIP conflict analysis with non-chronological
+ * backjumping, VSIDS branching with phase saving, and restarts on the Luby
+ * sequence. Learned clauses are kept for the lifetime of the solver, so a
+ * series of {@link #solve(int...)} calls under different assumptions reuses
+ * everything learned before.</p>
+ *
+ * <p>Every decision and conflict is charged to a {@link Budget}, in
+ * batches while a call runs and the rest when it returns. Once the budget
+ * is exhausted the current call stops, {@link #isStopped()} turns true and
+ * the solver answers neither satisfiable nor unsatisfiable.</p>
+ */
+public class SatSolver {
+    private static final double VAR_DECAY = 0.95;
+    private static final int RESTART_BASE = 100;
+
+    private final Budget budget;
+    private int spent = 0;
+    private boolean stopped = false;
+    private boolean unsat = false;
+
+    private int vars = 0;
+    private final List<int[]> clauses = new ArrayList<>();
+    // watch lists per internal literal 2 * v + sign
+    private int[][] watches = new int[2][];
+    private int[] watchCount = new int[2];
+
+    // per variable: 0 unassigned, 1 true, -1 false
+    private byte[] assign = new byte[1];
+    private int[] level = new int[1];
+    private int[] reason = new int[1];
+    private boolean[] phase = new boolean[1];
+    private boolean[] seen = new boolean[1];
+    private boolean[] model = new boolean[1];
+
+    private int[] trail = new int[1];
+    private int trailSize = 0;
+    private int qhead = 0;
+    private int[] trailLim = new int[1];
+    private int decisionLevel = 0;
+
+    private double[] activity = new double[1];
+    private double varInc = 1;
+    // binary max-heap of unassigned variables by activity
+    private int[] heap = new int[1];
+    private int heapSize = 0;
+    private int[] heapIndex = new int[1];
+
+    /**
+     * Creates a solver without variables.
+     *
+     * @param budget the budget decisions and conflicts are charged to
+     */
+    public SatSolver(Budget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Adds a variable.
+     *
+     * @return the number of the new variable
+     */
+    public int newVar() {
+        int v = ++vars;
+        if (v >= assign.length) {
+            int length = Math.max(v + 1, assign.length * 2);
+            assign = Arrays.copyOf(assign, length);
+            level = Arrays.copyOf(level, length);
+            reason = Arrays.copyOf(reason, length);
+            phase = Arrays.copyOf(phase, length);
+            seen = Arrays.copyOf(seen, length);
+            model = Arrays.copyOf(model, length);
+            trail = Arrays.copyOf(trail, length);
+            trailLim = Arrays.copyOf(trailLim, length);
+            activity = Arrays.copyOf(activity, length);
+            heap = Arrays.copyOf(heap, length);
+            heapIndex = Arrays.copyOf(heapIndex, length);
+            watches = Arrays.copyOf(watches, 2 * length);
+            watchCount = Arrays.copyOf(watchCount, 2 * length);
+        }
+        reason[v] = -1;
+        heapIndex[v] = -1;
+        insertVar(v);
+        return v;
+    }
+
+    /**
+     * Returns the number of variables.
+     *
+     * @return the variable count
+     */
+    public int varCount() {
+        return vars;
+    }
+
+    /**
+     * Adds a clause. Must not be called during {@link #solve(int...)}.
+     *
+     * @param literals the literals of the clause, in DIMACS form
+     * @return false if the formula has become unsatisfiable
+     */
+    public boolean addClause(int... literals) {
+        if (unsat) return false;
+        int[] c = new int[literals.length];
+        for (int i = 0; i < c.length; i++) c[i] = internal(literals[i]);
+        Arrays.sort(c);
+        int size = 0;
+        for (int i = 0; i < c.length; i++) {
+            int lit = c[i];
+            if (i > 0 && lit == c[i - 1]) continue;
+            if (i > 0 && lit == (c[i - 1] ^ 1)) return true;
+            int value = value(lit);
+            if (value == 1) return true;
+            if (value == -1) continue;
+            c[size++] = lit;
+        }
+        if (size == 0) {
+            unsat = true;
+            return false;
+        }
+        if (size == 1) {
+            enqueue(c[0], -1);
+            if (propagate() >= 0) unsat = true;
+            return !unsat;
+        }
+        attach(Arrays.copyOf(c, size));
+        return true;
+    }
+
+    /**
+     * Searches for an assignment satisfying all clauses and the given
+     * assumptions. A call on an exhausted budget stops at once.
+     *
+     * @param assumptions literals that must hold in this call only
+     * @return true if a satisfying assignment was found, false if there is
+     *         none or the budget ran out, see {@link #isStopped()}
+     */
+    public boolean solve(int... assumptions) {
+        stopped = false;
+        if (unsat) return false;
+        if (budget.isExhausted()) {
+            stopped = true;
+            return false;
+        }
+        int[] assumed = new int[assumptions.length];
+        for (int i = 0; i < assumed.length; i++) assumed[i] = internal(assumptions[i]);
+        // one level per assumption, even an implied one, plus one per decision
+        if (trailLim.length < vars + assumed.length + 1) {
+            trailLim = Arrays.copyOf(trailLim, vars + assumed.length + 1);
+        }
+        if (propagate() >= 0) {
+            unsat = true;
+            return false;
+        }
+        try {
+            for (int restart = 0; ; restart++) {
+                int result = search(RESTART_BASE * luby(restart), assumed);
+                if (result != 0) {
+                    cancelUntil(0);
+                    return result > 0;
+                }
+                if (stopped) {
+                    cancelUntil(0);
+                    return false;
+                }
+            }
+        } finally {
+            // settle the last partial batch, so the budget holds the exact count
+            if (spent > 0) budget.settle(spent);
+            spent = 0;
+        }
+    }
+
+    /**
+     * Returns the value of a variable in the assignment found by the last
+     * successful {@link #solve(int...)}.
+     *
+     * @param v a variable number
+     * @return the value of the variable
+     */
+    public boolean modelValue(int v) {
+        return model[v];
+    }
+
+    /**
+     * Checks whether the last {@link #solve(int...)} was stopped by the
+     * budget, in which case its false result proves nothing.
+     *
+     * @return true if the last call was cut short
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Runs propagation and decisions until a model is found, the formula is
+     * refuted, or {@code maxConflicts} conflicts have occurred.
+     *
+     * @return 1 if satisfiable, -1 if unsatisfiable under the assumptions,
+     *         0 if the search should restart or was stopped
+     */
+    private int search(int maxConflicts, int[] assumed) {
+        int conflicts = 0;
+        int[] learnt = new int[16];
+        while (true) {
+            int confl = propagate();
+            if (confl >= 0) {
+                if (!spend()) return 0;
+                conflicts++;
+                if (decisionLevel == 0) {
+                    unsat = true;
+                    return -1;
+                }
+                learnt = analyze(confl, learnt);
+                int size = learnt[learnt.length - 1];
+                int backjump = 0;
+                if (size > 1) {
+                    // the literal of the highest level after the asserting one is watched
+                    int max = 1;
+                    for (int i = 2; i < size; i++) {
+                        if (level[learnt[i] >> 1] > level[learnt[max] >> 1]) max = i;
+                    }
+                    int tmp = learnt[1];
+                    learnt[1] = learnt[max];
+                    learnt[max] = tmp;
+                    backjump = level[learnt[1] >> 1];
+                }
+                cancelUntil(backjump);
+                if (size == 1) {
+                    enqueue(learnt[0], -1);
+                } else {
+                    int ci = attach(Arrays.copyOf(learnt, size));
+                    enqueue(learnt[0], ci);
+                }
+                varInc /= VAR_DECAY;
+            } else {
+                if (conflicts >= maxConflicts) {
+                    cancelUntil(0);
+                    return 0;
+                }
+                int next = -1;
+                while (decisionLevel < assumed.length) {
+                    int p = assumed[decisionLevel];
+                    int value = value(p);
+                    if (value == 1) {
+                        // already implied: open an empty level to keep the numbering
+                        trailLim[decisionLevel++] = trailSize;
+                    } else if (value == -1) {
+                        return -1;
+                    } else {
+                        next = p;
+                        break;
+                    }
+                }
+                if (next < 0) {
+                    int v = pickBranchVar();
+                    if (v == 0) {
+                        for (int u = 1; u <= vars; u++) model[u] = assign[u] == 1;
+                        return 1;
+                    }
+                    next = 2 * v + (phase[v] ? 0 : 1);
+                }
+                if (!spend()) return 0;
+                trailLim[decisionLevel++] = trailSize;
+                enqueue(next, -1);
+            }
+        }
+    }
+
+    /**
+     * Counts one decision or conflict against the budget, charging it in
+     * batches of {@value Budget#BATCH}.
+     */
+    private boolean spend() {
+        if (++spent == Budget.BATCH) {
+            spent = 0;
+            if (!budget.charge(Budget.BATCH)) stopped = true;
+        }
+        return !stopped;
+    }
+
+    /**
+     * Propagates all enqueued assignments through the watched literals.
+     *
+     * @return the index of a falsified clause, or -1 if there is none
+     */
+    private int propagate() {
+        while (qhead < trailSize) {
+            int falseLit = trail[qhead++] ^ 1;
+            int[] ws = watches[falseLit];
+            int n = watchCount[falseLit];
+            int j = 0;
+            for (int i = 0; i < n; i++) {
+                int ci = ws[i];
+                int[] c = clauses.get(ci);
+                if (c[0] == falseLit) {
+                    c[0] = c[1];
+                    c[1] = falseLit;
+                }
+                if (value(c[0]) == 1) {
+                    ws[j++] = ci;
+                    continue;
+                }
+                boolean moved = false;
+                for (int k = 2; k < c.length; k++) {
+                    if (value(c[k]) != -1) {
+                        c[1] = c[k];
+                        c[k] = falseLit;
+                        watch(c[1], ci);
+                        moved = true;
+                        break;
+                    }
+                }
+                if (moved) continue;
+                ws[j++] = ci;
+                if (value(c[0]) == -1) {
+                    while (++i < n) ws[j++] = ws[i];
+                    watchCount[falseLit] = j;
+                    qhead = trailSize;
+                    return ci;
+                }
+                enqueue(c[0], ci);
+            }
+            watchCount[falseLit] = j;
+        }
+        return -1;
+    }
+
+    /**
+     * Derives the first-UIP clause of a conflict. The asserting literal is
+     * put first; the size of the clause is stored in the last element of
+     * the returned buffer.
+     */
+    private int[] analyze(int confl, int[] out) {
+        int size = 1;
+        int pathCount = 0;
+        int p = -1;
+        int index = trailSize - 1;
+        do {
+            int[] c = clauses.get(confl);
+            for (int j = p < 0 ? 0 : 1; j < c.length; j++) {
+                int q = c[j];
+                int v = q >> 1;
+                if (seen[v] || level[v] == 0) continue;
+                seen[v] = true;
+                bump(v);
+                if (level[v] >= decisionLevel) {
+                    pathCount++;
+                } else {
+                    if (size + 1 >= out.length) out = Arrays.copyOf(out, out.length * 2);
+                    out[size++] = q;
+                }
+            }
+            while (!seen[trail[index] >> 1]) index--;
+            p = trail[index--];
+            confl = reason[p >> 1];
+            seen[p >> 1] = false;
+            pathCount--;
+        } while (pathCount > 0);
+        out[0] = p ^ 1;
+        for (int i = 1; i < size; i++) seen[out[i] >> 1] = false;
+        out[out.length - 1] = size;
+        return out;
+    }
+
+    private int attach(int[] c) {
+        int ci = clauses.size();
+        clauses.add(c);
+        watch(c[0], ci);
+        watch(c[1], ci);
+        return ci;
+    }
+
+    private void watch(int lit, int ci) {
+        int[] ws = watches[lit];
+        if (ws == null) {
+            ws = new int[4];
+            watches[lit] = ws;
+        } else if (watchCount[lit] == ws.length) {
+            ws = Arrays.copyOf(ws, ws.length * 2);
+            watches[lit] = ws;
+        }
+        ws[watchCount[lit]++] = ci;
+    }
+
+    private void enqueue(int lit, int why) {
+        int v = lit >> 1;
+        assign[v] = (byte) ((lit & 1) == 0 ? 1 : -1);
+        level[v] = decisionLevel;
+        reason[v] = why;
+        trail[trailSize++] = lit;
+    }
+
+    private void cancelUntil(int target) {
+        if (decisionLevel <= target) return;
+        for (int i = trailSize - 1; i >= trailLim[target]; i--) {
+            int v = trail[i] >> 1;
+            phase[v] = assign[v] == 1;
+            assign[v] = 0;
+            reason[v] = -1;
+            if (heapIndex[v] < 0) insertVar(v);
+        }
+        trailSize = trailLim[target];
+        qhead = trailSize;
+        decisionLevel = target;
+    }
+
+    private int value(int lit) {
+        int a = assign[lit >> 1];
+        return (lit & 1) == 0 ? a : -a;
+    }
+
+    private static int internal(int literal) {
+        if (literal == 0) throw new IllegalArgumentException("Literal must not be 0");
+        return literal > 0 ? 2 * literal : 2 * -literal + 1;
+    }
+
+    /**
+     * Returns the i-th element (from 0) of the Luby sequence 1, 1, 2, 1, 1, 2, 4, ...
+     */
+    private static int luby(int i) {
+        int size = 1, seq = 0;
+        while (size < i + 1) {
+            seq++;
+            size = 2 * size + 1;
+        }
+        while (size - 1 != i) {
+            size = (size - 1) >> 1;
+            seq--;
+            i = i % size;
+        }
+        return 1 << seq;
+    }
+
+    private void bump(int v) {
+        activity[v] += varInc;
+        if (activity[v] > 1e100) {
+            for (int u = 1; u <= vars; u++) activity[u] *= 1e-100;
+            varInc *= 1e-100;
+        }
+        if (heapIndex[v] >= 0) siftUp(heapIndex[v]);
+    }
+
+    private int pickBranchVar() {
+        while (heapSize > 0) {
+            int v = heap[0];
+            removeTop();
+            if (assign[v] == 0) return v;
+        }
+        return 0;
+    }
+
+    private void insertVar(int v) {
+        heap[heapSize] = v;
+        heapIndex[v] = heapSize++;
+        siftUp(heapIndex[v]);
+    }
+
+    private void removeTop() {
+        int top = heap[0];
+        heapIndex[top] = -1;
+        int last = heap[--heapSize];
+        if (heapSize > 0) {
+            heap[0] = last;
+            heapIndex[last] = 0;
+            siftDown(0);
+        }
+    }
+
+    private void siftUp(int i) {
+        int v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (activity[heap[parent]] >= activity[v]) break;
+            heap[i] = heap[parent];
+            heapIndex[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = v;
+        heapIndex[v] = i;
+    }
+
+    private void siftDown(int i) {
+        int v = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && activity[heap[child + 1]] > activity[heap[child]]) child++;
+            if (activity[heap[child]] <= activity[v]) break;
+            heap[i] = heap[child];
+            heapIndex[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = v;
+        heapIndex[v] = i;
+    }
+}
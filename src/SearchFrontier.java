@@ -0,0 +1,493 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.Arrays;
+
+/**
+ * Search tree of a path search, stored as parallel primitive arrays.
+ *
+ * <p>Every node records the vertex it reaches, the index of its parent node
+ * and the id of the edge leading from the parent, so expanding a node costs a
+ * constant amount of work and memory instead of copying the whole path. Nodes
+ * are numbered in insertion order, which lets a breadth-first search use the
+ * node indices themselves as its FIFO queue. Paths are materialized only when
+ * a goal is hit.</p>
+ *
+ * <p>A node also records where its path entered the strongly connected
+ * component it is in, and a key of the edges used since then, the only
+ * edges the path can still traverse again. {@link #sameState(int, int)}
+ * compares nodes on these edges alone.</p>
+ *
+ * <p>Each node carries an edge-usage signature of those same edges, derived
+ * from its parent's and cleared when the path enters a new component: slot
+ * {@code e} modulo the signature size is set in {@code used} once some edge
+ * of that slot is on the current segment, and in {@code usedTwice} once two
+ * such edges are. The signature has one slot per edge of the graph up to
+ * {@value #MAX_SLOTS} edges, in which case the "edge used fewer than
+ * {@code limit} times" check is answered from it alone for limits up to 2.
+ * On larger graphs several edges share a slot, and when the slot cannot
+ * decide the check walks up the parent chain, but only over the current
+ * segment, so its cost is bounded by the length of the path inside one
+ * component rather than by its depth.</p>
+ */
+public class SearchFrontier {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_SLOTS = 256;
+
+    // longs per node signature, a power of two
+    private final int words;
+    // true if every edge has its own signature slot
+    private final boolean exact;
+
+    private int[] vertex = new int[INITIAL_CAPACITY];
+    private int[] parent = new int[INITIAL_CAPACITY];
+    private int[] edge = new int[INITIAL_CAPACITY];
+    private int[] depth = new int[INITIAL_CAPACITY];
+    private long[] used;
+    private long[] usedTwice;
+    private byte[][] state = new byte[INITIAL_CAPACITY][];
+    private long[] key = new long[INITIAL_CAPACITY];
+    // depth at which the path entered its current component, and the key
+    // of the edges used since
+    private int[] entry = new int[INITIAL_CAPACITY];
+    private long[] segmentKey = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Creates an empty tree with a 64-slot usage signature.
+     */
+    public SearchFrontier() {
+        this(64);
+    }
+
+    /**
+     * Creates an empty tree with a usage signature sized for a graph of
+     * {@code edgeCount} edges, one slot per edge up to {@value #MAX_SLOTS}.
+     *
+     * @param edgeCount the number of edges of the graph searched
+     */
+    public SearchFrontier(int edgeCount) {
+        int w = 1;
+        while (w * 64 < edgeCount && w * 64 < MAX_SLOTS) w *= 2;
+        this.words = w;
+        this.exact = edgeCount <= w * 64;
+        this.used = new long[INITIAL_CAPACITY * w];
+        this.usedTwice = new long[INITIAL_CAPACITY * w];
+    }
+
+    /**
+     * Adds a root node holding the given vertex.
+     *
+     * @param v the vertex id of the root
+     * @return the index of the new node
+     */
+    public int addRoot(int v) {
+        return add(v, -1, -1, null);
+    }
+
+    /**
+     * Adds a root node holding the given vertex and constraint state.
+     *
+     * @param v     the vertex id of the root
+     * @param state the {@link ConstraintAutomaton} state vector of the root path
+     * @return the index of the new node
+     */
+    public int addRoot(int v, byte[] state) {
+        return add(v, -1, -1, state);
+    }
+
+    /**
+     * Adds a child node reached from {@code parent} over {@code e}.
+     *
+     * @param v      the vertex id reached by the new node
+     * @param parent the index of the parent node, or -1 for a root
+     * @param e      the id of the edge between the parent vertex and {@code v},
+     *               or -1 for a root
+     * @return the index of the new node
+     */
+    public int add(int v, int parent, int e) {
+        return add(v, parent, e, null);
+    }
+
+    /**
+     * Adds a child node reached from {@code parent} over {@code e}, carrying
+     * the constraint state of the path it ends.
+     *
+     * @param v      the vertex id reached by the new node
+     * @param parent the index of the parent node, or -1 for a root
+     * @param e      the id of the edge between the parent vertex and {@code v},
+     *               or -1 for a root
+     * @param state  the {@link ConstraintAutomaton} state vector of the path
+     *               from the root to the new node; may be shared between nodes
+     * @return the index of the new node
+     */
+    public int add(int v, int parent, int e, byte[] state) {
+        return add(v, parent, e, state, 0L);
+    }
+
+    /**
+     * Adds a child node reached from {@code parent} over {@code e}, carrying
+     * the constraint state of the path it ends and the key of its search
+     * state, see {@link VisitedStates}.
+     *
+     * @param v      the vertex id reached by the new node
+     * @param parent the index of the parent node, or -1 for a root
+     * @param e      the id of the edge between the parent vertex and {@code v},
+     *               or -1 for a root
+     * @param state  the {@link ConstraintAutomaton} state vector of the path
+     *               from the root to the new node; may be shared between nodes
+     * @param key    the hash key of the node's search state
+     * @return the index of the new node
+     */
+    public int add(int v, int parent, int e, byte[] state, long key) {
+        return add(v, parent, e, state, key, true);
+    }
+
+    /**
+     * Adds a child node reached from {@code parent} over {@code e}, carrying
+     * the constraint state of the path it ends and the key of its vertex and
+     * constraint state; the key of the reusable edges is kept by the tree.
+     *
+     * @param v      the vertex id reached by the new node
+     * @param parent the index of the parent node, or -1 for a root
+     * @param e      the id of the edge between the parent vertex and {@code v},
+     *               or -1 for a root
+     * @param state  the {@link ConstraintAutomaton} state vector of the path
+     *               from the root to the new node; may be shared between nodes
+     * @param key    the hash key of the node's vertex and constraint state
+     * @param within true if {@code e} stays inside one strongly connected
+     *               component, false if it enters a new one, which makes
+     *               every edge used so far, {@code e} included, unusable for
+     *               the rest of the path
+     * @return the index of the new node
+     */
+    public int add(int v, int parent, int e, byte[] state, long key, boolean within) {
+        if (size == vertex.length) {
+            int capacity = size * 2;
+            vertex = Arrays.copyOf(vertex, capacity);
+            this.parent = Arrays.copyOf(this.parent, capacity);
+            edge = Arrays.copyOf(edge, capacity);
+            depth = Arrays.copyOf(depth, capacity);
+            used = Arrays.copyOf(used, capacity * words);
+            usedTwice = Arrays.copyOf(usedTwice, capacity * words);
+            this.state = Arrays.copyOf(this.state, capacity);
+            this.key = Arrays.copyOf(this.key, capacity);
+            entry = Arrays.copyOf(entry, capacity);
+            segmentKey = Arrays.copyOf(segmentKey, capacity);
+        }
+        vertex[size] = v;
+        this.state[size] = state;
+        this.key[size] = key;
+        this.parent[size] = parent;
+        edge[size] = e;
+        int base = size * words;
+        if (parent < 0 || !within) {
+            Arrays.fill(used, base, base + words, 0L);
+            Arrays.fill(usedTwice, base, base + words, 0L);
+        } else {
+            int from = parent * words;
+            System.arraycopy(used, from, used, base, words);
+            System.arraycopy(usedTwice, from, usedTwice, base, words);
+            if (e >= 0) {
+                int i = base + slot(e);
+                long bit = 1L << e;
+                usedTwice[i] |= used[i] & bit;
+                used[i] |= bit;
+            }
+        }
+        if (parent < 0) {
+            depth[size] = 0;
+            entry[size] = 0;
+            segmentKey[size] = 0L;
+        } else {
+            depth[size] = depth[parent] + 1;
+            if (within) {
+                entry[size] = entry[parent];
+                segmentKey[size] = segmentKey[parent] + VisitedStates.edgeKey(e);
+            } else {
+                entry[size] = depth[size];
+                segmentKey[size] = 0L;
+            }
+        }
+        return size++;
+    }
+
+    /**
+     * Returns the number of nodes in the search tree.
+     *
+     * @return the node count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all nodes, keeping the allocated capacity.
+     */
+    public void clear() {
+        Arrays.fill(state, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Removes the most recently added node, e.g. a child found to repeat an
+     * already visited search state.
+     */
+    public void removeLast() {
+        state[--size] = null;
+    }
+
+    /**
+     * Returns the vertex id reached by a node.
+     *
+     * @param node a node index
+     * @return the vertex id
+     */
+    public int vertex(int node) {
+        return vertex[node];
+    }
+
+    /**
+     * Returns the parent of a node.
+     *
+     * @param node a node index
+     * @return the parent node index, or -1 for a root
+     */
+    public int parent(int node) {
+        return parent[node];
+    }
+
+    /**
+     * Returns the id of the edge leading into a node.
+     *
+     * @param node a node index
+     * @return the edge id, or -1 for a root
+     */
+    public int edge(int node) {
+        return edge[node];
+    }
+
+    /**
+     * Returns the constraint state vector stored with a node.
+     *
+     * @param node a node index
+     * @return the state vector, or null if none was stored
+     */
+    public byte[] state(int node) {
+        return state[node];
+    }
+
+    /**
+     * Returns the key stored with a node by its caller.
+     *
+     * @param node a node index
+     * @return the key, or 0 if none was stored
+     */
+    public long key(int node) {
+        return key[node];
+    }
+
+    /**
+     * Returns the search-state key of a node: the key stored with it plus
+     * the key of the edges used since its path entered its component.
+     *
+     * @param node a node index
+     * @return the search-state key
+     */
+    public long stateKey(int node) {
+        return key[node] + segmentKey[node];
+    }
+
+    /**
+     * Checks whether two nodes are in the same search state: they end at the
+     * same vertex, carry equal constraint state vectors and have used every
+     * edge of their current strongly connected component the same number of
+     * times. Edges used before the path entered that component cannot be
+     * used again, so nodes in the same state have the same set of feasible
+     * continuations, whatever route led to them.
+     *
+     * @param a a node index
+     * @param b a node index
+     * @return true if both nodes are in the same search state
+     */
+    public boolean sameState(int a, int b) {
+        if (vertex[a] != vertex[b]) return false;
+        if (depth[a] - entry[a] != depth[b] - entry[b]) return false;
+        if (!Arrays.equals(state[a], state[b])) return false;
+        int[] ea = segment(a), eb = segment(b);
+        Arrays.sort(ea);
+        Arrays.sort(eb);
+        return Arrays.equals(ea, eb);
+    }
+
+    /**
+     * Collects the ids of the edges used since the path to a node entered
+     * its current component.
+     */
+    private int[] segment(int node) {
+        int[] edges = new int[depth[node] - entry[node]];
+        for (int n = node, i = 0; i < edges.length; n = parent[n], i++) {
+            edges[i] = edge[n];
+        }
+        return edges;
+    }
+
+    /**
+     * Returns the number of edges between the root and a node.
+     *
+     * @param node a node index
+     * @return the depth of the node
+     */
+    public int depth(int node) {
+        return depth[node];
+    }
+
+    /**
+     * Returns the depth at which the path to a node entered its current
+     * strongly connected component; 0 if it never left the component of
+     * the root or the tree was not told about components.
+     *
+     * @param node a node index
+     * @return the depth of the first node of the current segment
+     */
+    public int entryDepth(int node) {
+        return entry[node];
+    }
+
+    /**
+     * Counts how many times an edge is used since the path to a node entered
+     * its current strongly connected component. For an edge inside that
+     * component this is its count on the whole path from the root, since
+     * the path cannot have used it before entering.
+     *
+     * @param node a node index
+     * @param e    an edge id
+     * @return the number of occurrences of {@code e} on the current segment
+     */
+    public int segmentCount(int node, int e) {
+        if ((used[node * words + slot(e)] & (1L << e)) == 0) return 0;
+        int count = 0;
+        for (int n = node; depth[n] > entry[n]; n = parent[n]) {
+            if (edge[n] == e) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether an edge adjacent to a node's vertex is used fewer than
+     * {@code limit} times on the way from the root to the node, consulting
+     * the usage signature first.
+     *
+     * <p>Only the current segment is looked at: an edge inside the current
+     * component can only have been used there, and any other edge adjacent
+     * to the vertex leads into or out of the component and cannot have been
+     * used at all.</p>
+     *
+     * @param node  a node index
+     * @param e     the id of an edge leaving the node's vertex, or entering
+     *              it in a tree grown backwards
+     * @param limit the maximum number of uses allowed
+     * @return true if the edge is used fewer than {@code limit} times
+     */
+    public boolean edgeCountBelow(int node, int e, int limit) {
+        if (limit <= 0) return false;
+        int i = node * words + slot(e);
+        long bit = 1L << e;
+        if ((used[i] & bit) == 0) return true;
+        if (limit == 1 && exact) return false;
+        if (limit >= 2 && (usedTwice[i] & bit) == 0) return true;
+        if (limit == 2 && exact) return false;
+        return segmentCount(node, e) < limit;
+    }
+
+    /**
+     * Checks from the usage signatures alone that the path to {@code node}
+     * and the path to {@code o} in {@code other}, a tree over the same graph
+     * whose current segments are in the same component, use no edge more
+     * than {@code limit} times together. Only edges of that component can
+     * be on both paths.
+     *
+     * @param node  a node index
+     * @param other the other tree, with a signature of the same size
+     * @param o     a node index in {@code other}
+     * @param limit the maximum number of uses allowed, at least 1
+     * @return true if the signatures rule out an edge over the limit, false
+     *         if they cannot decide
+     */
+    public boolean signaturesWithin(int node, SearchFrontier other, int o, int limit) {
+        int a = node * words, b = o * other.words;
+        boolean disjoint = true, belowTwice = limit >= 2;
+        for (int w = 0; w < words; w++) {
+            long ua = used[a + w], ub = other.used[b + w];
+            if ((ua & ub) != 0) disjoint = false;
+            if ((usedTwice[a + w] & ub) != 0 || (ua & other.usedTwice[b + w]) != 0) belowTwice = false;
+        }
+        // edges shared by both sides are used once on each side
+        return disjoint || belowTwice;
+    }
+
+    /**
+     * Returns the word of a node's signature holding the slot of an edge;
+     * the bit within the word is {@code e & 63}.
+     */
+    private int slot(int e) {
+        return (e >>> 6) & (words - 1);
+    }
+
+    /**
+     * Writes the vertices from the root to a node into {@code buffer}.
+     *
+     * @param node   a node index
+     * @param buffer the destination, at least {@code depth(node) + 1} long
+     * @return the number of vertices written
+     */
+    public int fill(int node, int[] buffer) {
+        int length = depth[node] + 1;
+        for (int n = node, i = length - 1; n >= 0; n = parent[n], i--) {
+            buffer[i] = vertex[n];
+        }
+        return length;
+    }
+
+    /**
+     * Reconstructs the vertex sequence from the root to a node.
+     *
+     * @param node a node index
+     * @return the vertex ids, root first
+     */
+    public int[] path(int node) {
+        int[] path = new int[depth[node] + 1];
+        fill(node, path);
+        return path;
+    }
+
+    /**
+     * Reconstructs the vertex sequence from a node back to the root, as used by
+     * searches that grow paths backwards over incoming edges.
+     *
+     * @param node a node index
+     * @return the vertex ids, {@code node} first and the root last
+     */
+    public int[] pathToRoot(int node) {
+        int[] path = new int[depth[node] + 1];
+        for (int n = node, i = 0; n >= 0; n = parent[n], i++) {
+            path[i] = vertex[n];
+        }
+        return path;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+/**
+ * Defines the search strategies {@link CPCGenerator} can use to find an
+ * admissible path covering a constraint.
+ *
+ * <p>All strategies but the beam search return a shortest admissible path
+ * within the visit limit, or within the length bound for the SAT search, but
+ * may pick different ones among equally short candidates:
+ * <ul>
+ *   <li>{@link #BREADTH_FIRST} – forward search from the start vertex in
+ *       breadth-first order; the default.</li>
+ *   <li>{@link #BIDIRECTIONAL} – forward and backward searches joined in the
+ *       middle, see {@link BidirectionalSearch}.</li>
+ *   <li>{@link #BEST_FIRST}    – forward A* search guided by a distance bound
+ *       through the constraint vertices, see {@link BestFirstSearch}.</li>
+ *   <li>{@link #BEAM}          – breadth-first search that keeps only the
+ *       best-scored nodes of each depth, bounding memory at the cost of
+ *       exactness, see {@link BeamSearch}.</li>
+ *   <li>{@link #SAT}           – CDCL satisfiability search over paths of
+ *       bounded length instead of bounded edge reuse, see
+ *       {@link SatSearch}.</li>
+ * </ul>
+ * </p>
+ */
+public enum SearchMode {
+    BREADTH_FIRST,
+    BIDIRECTIONAL,
+    BEST_FIRST,
+    BEAM,
+    SAT
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.*;
+
+/**
+ * Interning dictionary that assigns each distinct vertex a dense integer id.
+ *
+ * <p>Ids are handed out in insertion order starting at 0 and never change, so
+ * vertices can be compared and hashed as plain {@code int} values in the
+ * search loops and translated back to the original objects only when paths
+ * are reported.</p>
+ *
+ * @param <V> the vertex type being interned
+ */
+public class SymbolTable<V> {
+    private final Map<V, Integer> ids = new HashMap<>();
+    private final List<V> symbols = new ArrayList<>();
+
+    /**
+     * Returns the id of the given vertex, assigning the next free id if the
+     * vertex has not been seen before.
+     *
+     * @param v the vertex to intern
+     * @return the dense id of {@code v}
+     */
+    public int intern(V v) {
+        Integer id = ids.get(v);
+        if (id == null) {
+            id = symbols.size();
+            ids.put(v, id);
+            symbols.add(v);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the id of the given vertex without interning it.
+     *
+     * @param v the vertex to look up
+     * @return the id of {@code v}, or -1 if it has not been interned
+     */
+    public int indexOf(V v) {
+        Integer id = ids.get(v);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the vertex with the given id.
+     *
+     * @param id an id in {@code 0..size()-1}
+     * @return the interned vertex
+     */
+    public V symbolAt(int id) {
+        return symbols.get(id);
+    }
+
+    /**
+     * Returns the number of interned vertices.
+     *
+     * @return the size of the table
+     */
+    public int size() {
+        return symbols.size();
+    }
+}
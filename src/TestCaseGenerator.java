@@ -17,8 +17,9 @@
 package com.example.cpb_test;
 
 import java.util.*;
-import org.jgrapht.Graph;
-import org.jgrapht.graph.DefaultEdge;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 /**
  * Provides a generic framework for generating test cases (test paths) over a directed graph model 
@@ -27,6 +28,7 @@ import org.jgrapht.graph.DefaultEdge;
  * <p>This abstract base class holds a reference to the {@code SUT} and defines the contract for
  * {@link #generate()}, which must produce a collection of test paths that collectively achieve
  * edge coverage while respecting any defined constraints. Subclasses implement {@code generate()}
+ * against the integer-indexed {@link CompactGraph} snapshot returned by {@link SUT#freeze()}
  * and may leverage the supplied utility methods to:
  * <ul>
  *   <li>Check whether a path contains or repeats a given constraint.</li>
@@ -39,6 +41,9 @@ import org.jgrapht.graph.DefaultEdge;
  */
 public abstract class TestCaseGenerator<V> {
     protected final SUT<V> sut;
+    private int parallelism = 1;
+    private Budget budget = new Budget();
+    private GenerationReport<V> report;
     
     /**
      * Constructs a TestCaseGenerator for the given System Under Test.
@@ -46,110 +51,297 @@ public abstract class TestCaseGenerator<V> {
      * @param sut the SUT model against which test paths will be generated
      */
     public TestCaseGenerator(SUT<V> sut) { this.sut = sut; }
+
+    /**
+     * Sets the number of threads a generator may use. The generated paths
+     * are the same for every setting, also under an expansion limit; only a
+     * time limit makes them depend on timing. A value of 1 runs everything
+     * on the calling thread.
+     *
+     * @param parallelism the number of worker threads, at least 1
+     * @throws IllegalArgumentException if {@code parallelism} is less than 1
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, got " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns the number of threads a generator may use. Defaults to 1, so
+     * no worker threads are started unless asked for.
+     *
+     * @return the number of worker threads
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Creates a fixed pool of daemon worker threads, so that an abandoned
+     * pool never keeps the JVM alive.
+     *
+     * @param threads the number of threads
+     * @param name    the name given to the threads
+     * @return a new executor; the caller shuts it down
+     */
+    static ExecutorService newPool(int threads, String name) {
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Sets the budget that bounds each {@link #generate()} call. When it is
+     * exhausted, the generator stops and returns the paths found so far.
+     *
+     * @param budget the budget; a new {@link Budget} sets no limit
+     * @throws IllegalArgumentException if {@code budget} is null
+     */
+    public void setBudget(Budget budget) {
+        if (budget == null) {
+            throw new IllegalArgumentException("Budget must not be null");
+        }
+        this.budget = budget;
+    }
+
+    /**
+     * Returns the budget that bounds each {@link #generate()} call.
+     *
+     * @return the budget
+     */
+    public Budget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Returns the report of the last {@link #generate()} call: whether the
+     * budget cut it short and what it left uncovered.
+     *
+     * @return the report, or null if {@code generate()} has not been called
+     */
+    public GenerationReport<V> getReport() {
+        return report;
+    }
+
+    /**
+     * Records the report of a {@link #generate()} call, computing the
+     * coverage targets the returned paths leave uncovered.
+     *
+     * @param g         the frozen graph snapshot of the SUT
+     * @param paths     the vertex-id paths returned by the call
+     * @param truncated true if the budget stopped the call
+     */
+    protected void report(CompactGraph<V> g, List<int[]> paths, boolean truncated) {
+        report(g, paths, truncated, false);
+    }
+
+    /**
+     * Records the report of a {@link #generate()} call whose searches may
+     * have dropped part of their frontier.
+     *
+     * @param g           the frozen graph snapshot of the SUT
+     * @param paths       the vertex-id paths returned by the call
+     * @param truncated   true if the budget stopped the call
+     * @param approximate true if a search dropped part of its frontier
+     */
+    protected void report(CompactGraph<V> g, List<int[]> paths, boolean truncated, boolean approximate) {
+        BitSet coveredConstraints = new BitSet(g.constraintCount());
+        BitSet coveredEdges = new BitSet(g.edgeCount());
+        for (int[] path : paths) {
+            markConstraints(path, g, coveredConstraints);
+            markEdges(path, g, coveredEdges);
+        }
+        report(g, coveredConstraints, coveredEdges, truncated, approximate);
+    }
+
+    /**
+     * Records the report of a {@link #generate()} call from the constraints
+     * and edges its paths cover, for generators that no longer hold the
+     * paths.
+     *
+     * @param g                  the frozen graph snapshot of the SUT
+     * @param coveredConstraints the constraints contained in at least one returned path,
+     *                           as marked by {@link #markConstraints(int[], CompactGraph, BitSet)}
+     * @param coveredEdges       the edges traversed by at least one returned path
+     * @param truncated          true if the budget stopped the call
+     * @param approximate        true if a search dropped part of its frontier
+     */
+    protected void report(CompactGraph<V> g, BitSet coveredConstraints, BitSet coveredEdges,
+                          boolean truncated, boolean approximate) {
+        List<Constraint<V>> constraints = new ArrayList<>();
+        for (int c = coveredConstraints.nextClearBit(0); c < g.constraintCount();
+                 c = coveredConstraints.nextClearBit(c + 1)) {
+            if (g.constraintType(c) == ConstraintType.POSITIVE ||
+                g.constraintType(c) == ConstraintType.ONCE) {
+                constraints.add(sut.getConstraints().get(c));
+            }
+        }
+        List<List<V>> edges = new ArrayList<>();
+        for (int e = coveredEdges.nextClearBit(0); e < g.edgeCount();
+                 e = coveredEdges.nextClearBit(e + 1)) {
+            edges.add(Arrays.asList(g.vertexOf(g.source(e)), g.vertexOf(g.target(e))));
+        }
+        report = new GenerationReport<>(truncated, approximate, constraints, edges);
+    }
     
     /**
      * Generates a collection of test paths satisfying the defined constraints.
      *
-     * @return a list of test paths, each represented as an ordered list of vertices
+     * @return a list of test paths, each represented as an ordered list of
+     *         vertices, stored as a {@link TestSet}
+     */
+    public abstract TestSet<V> generate();
+
+    /**
+     * Generates the same test paths as {@link #generate()}, handing each one
+     * to {@code consumer} instead of returning them together. The consumer
+     * is called on the calling thread, in the order {@code generate()} would
+     * return the paths, and the report is available once this method
+     * returns.
+     *
+     * <p>This implementation runs {@code generate()} and hands the paths
+     * over at the end. Generators that fix their paths one at a time
+     * override it to hand each path over as soon as it is found, so callers
+     * can start executing or writing tests early and the generator need
+     * not keep the paths.</p>
+     *
+     * @param consumer the consumer receiving each path as an ordered list of vertices
      */
-    public abstract List<List<V>> generate();
+    public void generate(Consumer<? super List<V>> consumer) {
+        for (List<V> path : generate()) {
+            consumer.accept(path);
+        }
+    }
     
     /**
      * Determines whether the specified constraint appears in the given path.
      * A constraint is satisfied if its 'from' vertex precedes its 'to' vertex at least once.
      *
-     * @param path the sequence of vertices forming a candidate test path
-     * @param c    the constraint pairing two vertices (from → to)
+     * @param path the sequence of vertex ids forming a candidate test path
+     * @param from the id of the constraint's 'from' vertex
+     * @param to   the id of the constraint's 'to' vertex
+     * @return true if the path contains the constraint, false otherwise
+     */
+    protected boolean containsConstraint(int[] path, int from, int to) {
+        return containsConstraint(path, path.length, from, to);
+    }
+
+    /**
+     * Determines whether the specified constraint appears in the first
+     * {@code length} vertices of the given path buffer.
+     *
+     * @param path   a buffer holding the vertex ids of a candidate test path
+     * @param length the number of valid vertices in {@code path}
+     * @param from   the id of the constraint's 'from' vertex
+     * @param to     the id of the constraint's 'to' vertex
      * @return true if the path contains the constraint, false otherwise
      */
-    protected boolean containsConstraint(List<V> path, Constraint<V> c) {
-    	boolean from = false, to = false;
-        for (int i = 0; i < path.size(); i++) {
-            if(path.get(i).equals(c.getFrom())) from = true;
-            else if (path.get(i).equals(c.getTo()) && from) to = true;
+    protected boolean containsConstraint(int[] path, int length, int from, int to) {
+    	boolean seenFrom = false;
+        for (int i = 0; i < length; i++) {
+            if(path[i] == from) seenFrom = true;
+            else if (path[i] == to && seenFrom) return true;
         }
-        return from && to;
+        return false;
     }
     
     /**
-     * Checks whether the given constraint appears more than once in the path.
+     * Checks whether the given constraint appears more than once in the first
+     * {@code length} vertices of the path buffer.
      * Both the 'from' and 'to' vertices must each occur at least twice, in order.
      *
-     * @param path the sequence of vertices forming a candidate test path
-     * @param c    the constraint pairing two vertices (from → to)
+     * @param path   a buffer holding the vertex ids of a candidate test path
+     * @param length the number of valid vertices in {@code path}
+     * @param from   the id of the constraint's 'from' vertex
+     * @param to     the id of the constraint's 'to' vertex
      * @return true if the constraint appears repeatedly, false otherwise
      */
-    protected boolean containsConstraintRepeatedly(List<V> path, Constraint<V> c) {
-    	int from = 0, to = 0;
-        for (int i = 0; i < path.size(); i++) {
-            if(path.get(i).equals(c.getFrom())) from ++;
-            else if (path.get(i).equals(c.getTo()) && from > to) to++;
+    protected boolean containsConstraintRepeatedly(int[] path, int length, int from, int to) {
+    	int nFrom = 0, nTo = 0;
+        for (int i = 0; i < length; i++) {
+            if(path[i] == from) nFrom ++;
+            else if (path[i] == to && nFrom > nTo) nTo++;
         }
-        return from > 1 && to > 1;
+        return nFrom > 1 && nTo > 1;
     }
     
     /**
-     * Verifies that the candidate path does not violate any constraint in C,
+     * Verifies that the candidate path does not violate any constraint of the SUT.
+     *
+     * @param path    the sequence of vertex ids forming a candidate test path
+     * @param g       the frozen snapshot holding the SUT constraints
+     * @param covered the indices of constraints already covered by previous paths
+     * @return true if the path is admissible, false if it violates any rule
+     */
+    protected boolean isAdmissible(int[] path,
+                                 CompactGraph<V> g,
+                                 BitSet covered) {
+        return isAdmissible(path, path.length, g, covered);
+    }
+
+    /**
+     * Verifies that the first {@code length} vertices of the path buffer do not
+     * violate any constraint of the SUT.
+     *
+     * <p>Only the constraints in which a path vertex appears are looked at,
+     * so a vertex outside every constraint costs nothing.</p>
      *
-     * @param path    the sequence of vertices forming a candidate test path
-     * @param C       the full list of constraints for the SUT
-     * @param covered the set of constraints already covered by previous paths
+     * @param path    a buffer holding the vertex ids of a candidate test path
+     * @param length  the number of valid vertices in {@code path}
+     * @param g       the frozen snapshot holding the SUT constraints
+     * @param covered the indices of constraints already covered by previous paths
      * @return true if the path is admissible, false if it violates any rule
      */
-    protected boolean isAdmissible(List<V> path,
-                                 List<Constraint<V>> C,
-                                 Set<Constraint<V>> covered) {
-		for(Constraint<V> c : C) {
-			if(c.getType() == ConstraintType.NEGATIVE && containsConstraint(path, c)) {
-				return false;
-			}
-			if(c.getType() == ConstraintType.ONCE || c.getType() == ConstraintType.MAX_ONCE) {
-				if(containsConstraintRepeatedly(path, c)) {
-					return false;
-					}
-				if(containsConstraint(path, c) && covered.contains(c)) {
-					return false;
-				}
-			}
-		}
-    	return true;
-        
+    protected boolean isAdmissible(int[] path, int length,
+                                 CompactGraph<V> g,
+                                 BitSet covered) {
+        return g.automaton().admissible(path, length, covered);
     }
     
     /**
-     * Marks all constraints from C that are covered by the given path,
-     * adding them to the coveredConstraints set.
+     * Marks all constraints of the SUT that are covered by the given path,
+     * adding their indices to the coveredConstraints set.
      *
-     * @param path               the sequence of vertices forming a test path
-     * @param C                  the full list of constraints for the SUT
-     * @param coveredConstraints the set to which newly covered constraints will be added
+     * @param path               the sequence of vertex ids forming a test path
+     * @param g                  the frozen snapshot holding the SUT constraints
+     * @param coveredConstraints the set to which newly covered constraint indices will be added
      */
-    protected void markConstraints(List<V> path,
-                                 List<Constraint<V>> C,
-                                 Set<Constraint<V>> coveredConstraints) {
-        for (Constraint<V> c : C) {
-            if (containsConstraint(path, c)) {
-                coveredConstraints.add(c);
+    protected void markConstraints(int[] path,
+                                 CompactGraph<V> g,
+                                 BitSet coveredConstraints) {
+        if (path.length == 0) return;
+        ConstraintAutomaton automaton = g.automaton();
+        byte[] states = automaton.run(path, path.length);
+        for (int v : path) {
+            for (int k = 0; k < g.constraintDegree(v); k++) {
+                int c = g.constraintOf(v, k);
+                if (automaton.satisfied(states, c)) coveredConstraints.set(c);
             }
         }
     }
     
     /**
-     * Adds all edges traversed in the given path to the coveredEdges set.
+     * Sets the bit of every edge traversed in the given path in the coveredEdges set.
      *
-     * @param path         the sequence of vertices forming a test path
-     * @param g            the graph model of the SUT
-     * @param coveredEdges the set to which covered edges will be added
+     * <p>Callers iterate the remaining work with
+     * {@code coveredEdges.nextClearBit(cursor)}, which visits only the uncovered
+     * edge ids in increasing order.</p>
+     *
+     * @param path         the sequence of vertex ids forming a test path
+     * @param g            the frozen graph snapshot of the SUT
+     * @param coveredEdges the bit set, indexed by edge id, of covered edges
      */
-    protected void markEdges(List<V> path,
-                           Graph<V, DefaultEdge> g,
-                           Set<DefaultEdge> coveredEdges) {
-        for (int i = 0; i + 1 < path.size(); i++) {
-            V u = path.get(i);
-            V v = path.get(i + 1);
-            DefaultEdge e = g.getEdge(u, v);
-            if (e != null) {
-                coveredEdges.add(e);
+    protected void markEdges(int[] path,
+                           CompactGraph<V> g,
+                           BitSet coveredEdges) {
+        for (int i = 0; i + 1 < path.length; i++) {
+            int e = g.edgeId(path[i], path[i + 1]);
+            if (e >= 0) {
+                coveredEdges.set(e);
             }
         }
     }
@@ -158,150 +350,41 @@ public abstract class TestCaseGenerator<V> {
      * Builds a complete path that covers the specified edge by concatenating
      * a path leading to its source and a path from its target.
      *
-     * @param g   the graph model of the SUT
-     * @param eIn the edge to be covered by the resulting path
-     * @return a list of vertices forming the combined path, or null if invalid
-     */
-    protected List<V> buildPathCoveringEdge(Graph<V, DefaultEdge> g,
-                                          DefaultEdge eIn) {
-    	
-        List<V> Ps = findPathsToEdge(eIn, g);
-        List<V> Pe = findPathsFromEdge(eIn, g);
-        List<V> path = new ArrayList<>();
-        
-        if (Ps != null) {
-        	path.addAll(Ps);
-        }
-        if (Pe != null) {
-        	path.addAll(Pe);
-        }
-        if(path.isEmpty()) return path;
-        
-        
-        if(path.getFirst() != sut.getStartVertex() || !sut.getEndVertices().contains(path.getLast())) {
-        	return null;
-        }
-        return path;
-    }
-
-    /**
-     * Finds a shortest path from the SUT start vertex to the source of the given edge
-     * using a breadth‐first search over incoming edges.
+     * <p>Both halves come from the {@link PathTables} cached on the snapshot,
+     * so the path is assembled in time proportional to its length.</p>
      *
-     * @param e the edge whose source vertex must be reached
-     * @param g the graph model of the SUT
-     * @return a list of vertices from start to the edge source, or null if no path exists
+     * @param g   the frozen graph snapshot of the SUT
+     * @param eIn the id of the edge to be covered by the resulting path
+     * @return the vertex ids of the combined path, or null if no such path exists
      */
-    protected List<V> findPathsToEdge(DefaultEdge e,
-                                          Graph<V, DefaultEdge> g) {
-        V start = sut.getStartVertex();
-        V end = g.getEdgeSource(e);
-        if(start == end) {
-        	List<V> path = new ArrayList<>();
-            path.addFirst(end);
-            return path;
-        }
-        Queue<List<V>> queue = new ArrayDeque<>();
-            
-        for (DefaultEdge eIn : g.incomingEdgesOf(end)) {
-            V next = g.getEdgeSource(eIn);
-            List<V> path = new ArrayList<>();
-            path.addFirst(end);
-            path.addFirst(next);
-            queue.add(path);
-            
-        }
-        while (!queue.isEmpty()) {
-        	List<V> path = new ArrayList<>();
-            path = queue.poll();
-            V first = path.getFirst();
-            if (first == start) {
-                return path;
-            }
-            for (DefaultEdge eIn : g.incomingEdgesOf(first)) {
-                V nxt = g.getEdgeSource(eIn);
-                if (nxt == start) {
-                	path.addFirst(nxt);
-                    return path;
-                }
-                if (!containEdge(path, eIn, g)) {
-                    List<V> newPath = new ArrayList<>();
-                    newPath.addAll(path);
-                    newPath.addFirst(nxt);
-                    queue.add(newPath);
-                }
-            }
-        }
-        return null;
+    protected int[] buildPathCoveringEdge(CompactGraph<V> g,
+                                          int eIn) {
+        return g.pathTables().pathCovering(eIn);
     }
 
     /**
-     * Finds a shortest path from the target of the given edge to any end vertex
-     * using a breadth‐first search over outgoing edges.
+     * Returns a shortest path from the SUT start vertex to the source of the given edge,
+     * read from the forward breadth-first search tree of the {@link PathTables}.
      *
-     * @param e the edge whose target vertex is the path start
-     * @param g the graph model of the SUT
-     * @return a list of vertices from the edge target to an end vertex, or null if none exists
+     * @param e the id of the edge whose source vertex must be reached
+     * @param g the frozen graph snapshot of the SUT
+     * @return the vertex ids from start to the edge source, or null if no path exists
      */
-    protected List<V> findPathsFromEdge(DefaultEdge e,
-                                          Graph<V, DefaultEdge> g) {
-        Set<V> ends = sut.getEndVertices();
-        V start = g.getEdgeTarget(e);
-        if(ends.contains(start)) {
-        	List<V> path = new ArrayList<>();
-            path.addFirst(start);
-            return path;
-        }
-        Queue<List<V>> queue = new ArrayDeque<>();
-            
-        for (DefaultEdge eOut : g.outgoingEdgesOf(start)) {
-            V next = g.getEdgeTarget(eOut);
-            List<V> path = new ArrayList<>();
-            path.add(start);
-            path.add(next);
-            queue.add(path);
-        }
-        while (!queue.isEmpty()) {
-        	List<V> path = new ArrayList<>();
-            path = queue.poll();
-            V last = path.getLast();
-            if (ends.contains(last)) {
-                return path;
-            }
-            for (DefaultEdge eOut : g.outgoingEdgesOf(last)) {
-                V nxt = g.getEdgeTarget(eOut);
-                if (ends.contains(nxt)) {
-                	path.add(nxt);
-                    return path;
-                }
-                if (!containEdge(path, eOut, g)) {
-                    List<V> newPath = new ArrayList<>();
-                    newPath.addAll(path);
-                    newPath.add(nxt);
-                    queue.add(newPath);
-                }
-            }
-        }
-        return null;
+    protected int[] findPathsToEdge(int e,
+                                          CompactGraph<V> g) {
+        return g.pathTables().prefix(g.source(e));
     }
-    
+
     /**
-     * Checks whether the specified edge appears in the given path.
+     * Returns a shortest path from the target of the given edge to the nearest end vertex,
+     * read from the reverse breadth-first search tree of the {@link PathTables}.
      *
-     * @param path the sequence of vertices forming a test path
-     * @param e    the graph edge to look for
-     * @param g    the graph model of the SUT
-     * @return true if the edge is present in the path, false otherwise
+     * @param e the id of the edge whose target vertex is the path start
+     * @param g the frozen graph snapshot of the SUT
+     * @return the vertex ids from the edge target to an end vertex, or null if none exists
      */
-    protected boolean containEdge(List<V> path,
-                                     DefaultEdge e,
-                                     Graph<V, DefaultEdge> g) {
-        V u = g.getEdgeSource(e), v = g.getEdgeTarget(e);
-        for (int i = 0; i + 1 < path.size(); i++) {
-            if (path.get(i).equals(u) && path.get(i + 1).equals(v)) {
-                return true;
-            }
-        }
-        return false;
+    protected int[] findPathsFromEdge(int e,
+                                          CompactGraph<V> g) {
+        return g.pathTables().suffix(g.target(e));
     }
-}
\ No newline at end of file
+}
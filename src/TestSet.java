@@ -0,0 +1,207 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A test set stored as vertex-id arrays with a hash index of the distinct
+ * paths.
+ *
+ * <p>Each path is kept once as an {@code int[]} of vertex ids instead of a
+ * list of boxed vertices, and the distinct paths are also indexed in a
+ * {@link PathSet}, so {@link #contains(int[])} takes time proportional to
+ * the path length. Equal paths may be added more than once and are kept;
+ * generators that do not want duplicates check {@link #contains(int[])}
+ * first.</p>
+ *
+ * <p>The set is a {@code List<List<V>>} in the order the paths were added,
+ * so callers and {@link Metrics} use it like any other list. Elements are
+ * read-only views over the stored ids and are not copied when read.</p>
+ *
+ * @param <V> the vertex type used in the SUT graph
+ */
+public class TestSet<V> extends AbstractList<List<V>> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final CompactGraph<V> g;
+
+    // per path, in insertion order: its vertex ids
+    private int[][] paths = new int[INITIAL_CAPACITY][];
+    private int size = 0;
+    // the distinct paths, for duplicate checks
+    private final PathSet index = new PathSet();
+
+    /**
+     * Creates an empty test set over the given snapshot.
+     *
+     * @param g the frozen graph snapshot the vertex ids refer to
+     */
+    public TestSet(CompactGraph<V> g) {
+        this.g = g;
+    }
+
+    /**
+     * Returns the snapshot the vertex ids of the set refer to.
+     *
+     * @return the frozen graph snapshot
+     */
+    public CompactGraph<V> graph() {
+        return g;
+    }
+
+    /**
+     * Appends a path of vertex ids. The array is copied and may be reused
+     * by the caller.
+     *
+     * @param path the vertex ids of a path, at least one
+     */
+    public void add(int[] path) {
+        int[] copy = path.clone();
+        if (size == paths.length) paths = Arrays.copyOf(paths, size * 2);
+        paths[size++] = copy;
+        index.add(copy);
+    }
+
+    /**
+     * Appends a path of vertices.
+     *
+     * @param path the vertices of a path
+     * @return true
+     * @throws IllegalArgumentException if a vertex is not in the graph
+     */
+    @Override
+    public boolean add(List<V> path) {
+        int[] ids = g.toIds(path);
+        for (int k = 0; k < ids.length; k++) {
+            if (ids[k] < 0) {
+                throw new IllegalArgumentException("Vertex not in graph: " + path.get(k));
+            }
+        }
+        add(ids);
+        return true;
+    }
+
+    /**
+     * Checks whether a path with the same vertex sequence is in the set.
+     *
+     * @param path the vertex ids of a path
+     * @return true if an equal path was added before
+     */
+    public boolean contains(int[] path) {
+        return index.contains(path);
+    }
+
+    /**
+     * Checks whether a path with the same vertices is in the set, looking
+     * it up by hash instead of comparing it with every element.
+     *
+     * @param o the path to look up
+     * @return true if an equal path was added before
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o) {
+        if (!(o instanceof List)) return false;
+        List<V> path = (List<V>) o;
+        int[] ids = g.toIds(path);
+        for (int v : ids) {
+            if (v < 0) return false;
+        }
+        return contains(ids);
+    }
+
+    /**
+     * Returns the vertex ids of a path.
+     *
+     * @param index the position of the path in insertion order
+     * @return the stored vertex ids of the path, which must not be modified
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public int[] ids(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return paths[index];
+    }
+
+    /**
+     * Returns the vertices of a path.
+     *
+     * @param index the position of the path in insertion order
+     * @return a read-only view of the vertices of the path
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    @Override
+    public List<V> get(int index) {
+        return new PathView(ids(index));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a read-only view of the set as vertex-id paths.
+     *
+     * @return the stored paths as vertex-id arrays, in insertion order,
+     *         which must not be modified
+     */
+    public List<int[]> idPaths() {
+        return new IdPaths();
+    }
+
+    /**
+     * The vertices of one stored path, mapped from ids when read.
+     */
+    private class PathView extends AbstractList<V> implements RandomAccess {
+        private final int[] ids;
+
+        PathView(int[] ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public V get(int k) {
+            return g.vertexOf(ids[k]);
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+
+    /**
+     * The stored vertex-id paths, in insertion order.
+     */
+    private class IdPaths extends AbstractList<int[]> implements RandomAccess {
+        @Override
+        public int[] get(int index) {
+            return ids(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
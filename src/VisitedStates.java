@@ -0,0 +1,159 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import java.util.Arrays;
+
+/**
+ * Set of the search states already reached by the nodes of a
+ * {@link SearchFrontier}, used to expand every state only once.
+ *
+ * <p>The state of a node is what decides its future in a path search: the
+ * vertex it ends at, its {@link ConstraintAutomaton} state vector and how many
+ * times each edge it can still traverse has been used. A path never returns
+ * to a strongly connected component it has left, so those are the edges used
+ * since it entered its current component. Each node carries a 64-bit key of
+ * its state, the sum of one pseudo-random word per vertex, edge use and
+ * (constraint, automaton state) component, so a child's key follows from its
+ * parent's by adding and subtracting the few components that changed. An
+ * edge used k times adds its word k times, so extending a path needs no count
+ * of the earlier uses. Keys are stored in an open-addressing table; two nodes
+ * with equal keys are compared exactly with
+ * {@link SearchFrontier#sameState(int, int)} before one is treated as a
+ * duplicate, so hash collisions never prune a path. A node only duplicates
+ * an earlier node that is not deeper, so a shorter route to a state, which
+ * a raised visit limit or a best-first order can find late, is kept.</p>
+ */
+public class VisitedStates {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private static final long VERTEX_SALT = 0x243F6A8885A308D3L;
+    private static final long EDGE_SALT = 0x13198A2E03707344L;
+    private static final long CONSTRAINT_SALT = 0xA4093822299F31D0L;
+
+    private final SearchFrontier tree;
+    private int[] nodes = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Creates an empty set over the nodes of the given search tree.
+     *
+     * @param tree the search tree whose node keys and states are compared
+     */
+    public VisitedStates(SearchFrontier tree) {
+        this.tree = tree;
+        Arrays.fill(nodes, -1);
+    }
+
+    /**
+     * Records the state of a node unless an equal state has been recorded
+     * before by a node that is not deeper.
+     *
+     * @param node a node index of the search tree, with its key set
+     * @return true if the state is new, false if an earlier node at most as
+     *         deep has the same state
+     */
+    public boolean add(int node) {
+        long key = tree.stateKey(node);
+        int mask = nodes.length - 1;
+        int i = mix(key) & mask;
+        for (; nodes[i] >= 0; i = (i + 1) & mask) {
+            int other = nodes[i];
+            if (tree.stateKey(other) == key && tree.depth(other) <= tree.depth(node)
+                    && tree.sameState(other, node)) return false;
+        }
+        nodes[i] = node;
+        if (++size * 2 > nodes.length) grow();
+        return true;
+    }
+
+    /**
+     * Removes all recorded states, keeping the allocated capacity.
+     */
+    public void clear() {
+        Arrays.fill(nodes, -1);
+        size = 0;
+    }
+
+    /**
+     * Returns the number of recorded states.
+     *
+     * @return the state count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Doubles the table and reinserts every recorded node.
+     */
+    private void grow() {
+        int[] old = nodes;
+        nodes = new int[old.length * 2];
+        Arrays.fill(nodes, -1);
+        int mask = nodes.length - 1;
+        for (int node : old) {
+            if (node < 0) continue;
+            int i = mix(tree.stateKey(node)) & mask;
+            while (nodes[i] >= 0) i = (i + 1) & mask;
+            nodes[i] = node;
+        }
+    }
+
+    /**
+     * Returns the key component of ending at a vertex.
+     *
+     * @param v a vertex id
+     * @return the key word of {@code v}
+     */
+    public static long vertexKey(int v) {
+        return splitmix(VERTEX_SALT + v);
+    }
+
+    /**
+     * Returns the key component of one use of an edge; a path adds it once
+     * per traversal of the edge.
+     *
+     * @param e an edge id
+     * @return the key word of the edge
+     */
+    public static long edgeKey(int e) {
+        return splitmix(EDGE_SALT + e);
+    }
+
+    /**
+     * Returns the key component of a constraint in a given automaton state;
+     * the initial state contributes nothing.
+     *
+     * @param c     a constraint index
+     * @param state the automaton state of {@code c}
+     * @return the key word of the constraint state
+     */
+    public static long constraintKey(int c, int state) {
+        return state == 0 ? 0L : splitmix(CONSTRAINT_SALT + ((long) c << 8) + state);
+    }
+
+    private static long splitmix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix(long key) {
+        return (int) (key ^ (key >>> 32));
+    }
+}
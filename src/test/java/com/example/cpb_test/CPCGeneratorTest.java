@@ -0,0 +1,89 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Checks that the speculative parallel Phase 1 of {@link CPCGenerator}
+ * produces the same test set and report as the sequential one when an
+ * expansion budget cuts searches short.
+ */
+public class CPCGeneratorTest {
+    private static final int MODELS = 60;
+    private static final int THREADS = 4;
+
+    @ParameterizedTest
+    @ValueSource(longs = {200, 1000, 5000})
+    void parallelMatchesSequentialUnderExpansionLimit(long maxExpansions) {
+        Random random = new Random(42);
+        for (int m = 0; m < MODELS; m++) {
+            SUT<Integer> sut = randomModel(random);
+            for (int round = 0; round < 2; round++) {
+                String sequential = run(sut, 1, maxExpansions);
+                String parallel = run(sut, THREADS, maxExpansions);
+                assertEquals(sequential, parallel, "model " + m + ", round " + round);
+            }
+        }
+    }
+
+    /**
+     * Generates with the given number of threads and expansion limit, and
+     * returns the paths followed by the report.
+     */
+    private static String run(SUT<Integer> sut, int threads, long maxExpansions) {
+        CPCGenerator<Integer> generator = new CPCGenerator<>(sut);
+        generator.setParallelism(threads);
+        generator.setVisitLimit(3);
+        Budget budget = new Budget();
+        budget.setMaxExpansions(maxExpansions);
+        generator.setBudget(budget);
+        List<List<Integer>> paths = generator.generate();
+        GenerationReport<Integer> report = generator.getReport();
+        return paths + "\n" + report + "\n" + report.getUncoveredConstraints()
+                + "\n" + report.getUncoveredEdges();
+    }
+
+    /**
+     * Builds a cyclic model: a chain from start to end, random extra edges
+     * and a mix of constraints of every type.
+     */
+    private static SUT<Integer> randomModel(Random random) {
+        int n = 8 + random.nextInt(12);
+        SUT<Integer> sut = new SUT<>();
+        for (int v = 0; v < n; v++) sut.addVertex(v);
+        sut.setStartVertex(0);
+        sut.addEndVertex(n - 1);
+        for (int v = 0; v + 1 < n; v++) sut.addEdge(v, v + 1);
+        for (int k = 0; k < n; k++) {
+            int u = random.nextInt(n - 1), v = random.nextInt(n);
+            if (u != v) sut.addEdge(u, v);
+        }
+        ConstraintType[] types = ConstraintType.values();
+        for (int k = 0; k < 8; k++) {
+            sut.addConstraint(new Constraint<>(random.nextInt(n), random.nextInt(n),
+                    types[random.nextInt(types.length)]));
+        }
+        return sut;
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks {@link FlowNetwork} on small networks with known optima, and the
+ * flow-based {@link PathCoverGenerator} and {@link PostmanGenerator} against
+ * an exhaustive search over start-to-end walks of small random models.
+ */
+public class CoveringCirculationTest {
+    private static final int MODELS = 200;
+    /** Cost of one edge in the brute-force search; more than any walk count. */
+    private static final int EDGE_COST = 100;
+
+    @Test
+    void maxFlowMatchesMinimumCut() {
+        // two disjoint routes of capacity 3 and 2, joined by a cross arc
+        FlowNetwork net = new FlowNetwork(4);
+        net.addArc(0, 1, 0, 3);
+        net.addArc(0, 2, 0, 2);
+        net.addArc(1, 2, 0, 1);
+        net.addArc(1, 3, 0, 2);
+        net.addArc(2, 3, 0, 3);
+        assertEquals(5, net.maxFlow(0, 3, Long.MAX_VALUE, new Budget()));
+    }
+
+    @Test
+    void minCostFlowTakesCheapestRoutes() {
+        FlowNetwork net = new FlowNetwork(4);
+        int cheap = net.addArc(0, 1, 1, 2);
+        int dear = net.addArc(0, 2, 5, 2);
+        net.addArc(1, 3, 1, 2);
+        net.addArc(2, 3, 1, 2);
+        assertTrue(net.minCostFlow(0, 3, 3, new Budget()));
+        assertEquals(2, net.flow(cheap));
+        assertEquals(1, net.flow(dear));
+        assertFalse(new FlowNetwork(2).minCostFlow(0, 1, 1, new Budget()));
+    }
+
+    @Test
+    void pathCoverUsesFewestWalks() {
+        Random random = new Random(42);
+        for (int m = 0; m < MODELS; m++) {
+            Model model = Model.random(random);
+            PathCoverGenerator<Integer> generator = new PathCoverGenerator<>(model.sut);
+            List<List<Integer>> walks = generator.generate();
+            assertFalse(generator.getReport().isTruncated(), "model " + m);
+            model.checkCovers(walks, m);
+            assertEquals(model.optimum(0), walks.size(), "model " + m);
+        }
+    }
+
+    @Test
+    void postmanUsesShortestCover() {
+        Random random = new Random(42);
+        for (int m = 0; m < MODELS; m++) {
+            Model model = Model.random(random);
+            PostmanGenerator<Integer> generator = new PostmanGenerator<>(model.sut);
+            List<List<Integer>> walks = generator.generate();
+            assertFalse(generator.getReport().isTruncated(), "model " + m);
+            model.checkCovers(walks, m);
+            long cost = 0;
+            for (List<Integer> walk : walks) cost += (long) (walk.size() - 1) * EDGE_COST + 1;
+            assertEquals(model.optimum(EDGE_COST), cost, "model " + m);
+        }
+    }
+
+    @Test
+    void objectivesDifferOnCycles() {
+        // a single walk needs 10 edges, while two walks ending at 3 and 4 need 9
+        Model model = new Model(7, new int[] {3, 4}, new int[][] {
+                {6, 0}, {4, 5}, {6, 5}, {2, 3}, {6, 4}, {0, 4}, {5, 6}, {5, 3}, {0, 6}});
+        List<List<Integer>> fewest = new PathCoverGenerator<>(model.sut).generate();
+        List<List<Integer>> shortest = new PostmanGenerator<>(model.sut).generate();
+        model.checkCovers(fewest, 0);
+        model.checkCovers(shortest, 0);
+        assertEquals(1, fewest.size());
+        assertEquals(2, shortest.size());
+        assertEquals(9, shortest.get(0).size() + shortest.get(1).size() - 2);
+    }
+
+    /**
+     * A small cyclic model with start vertex 0 and some end vertices.
+     * Edges on no start-to-end walk stay in the model but need no covering.
+     */
+    private static final class Model {
+        final SUT<Integer> sut = new SUT<>();
+        final int n;
+        final boolean[] end;
+        final int[][] edgeIndex;
+        final List<int[]> edgeList = new ArrayList<>();
+        int coverable;
+
+        Model(int n, int[] ends, int[][] edges) {
+            this.n = n;
+            end = new boolean[n];
+            edgeIndex = new int[n][n];
+            for (int[] row : edgeIndex) Arrays.fill(row, -1);
+            for (int v = 0; v < n; v++) sut.addVertex(v);
+            sut.setStartVertex(0);
+            for (int v : ends) {
+                sut.addEndVertex(v);
+                end[v] = true;
+            }
+            for (int[] edge : edges) {
+                edgeIndex[edge[0]][edge[1]] = edgeList.size();
+                edgeList.add(edge);
+                sut.addEdge(edge[0], edge[1]);
+            }
+            boolean[] fromStart = reach(0, true);
+            boolean[] toEnd = new boolean[n];
+            for (int v : ends) {
+                boolean[] r = reach(v, false);
+                for (int w = 0; w < n; w++) toEnd[w] |= r[w];
+            }
+            for (int e = 0; e < edgeList.size(); e++) {
+                if (fromStart[edgeList.get(e)[0]] && toEnd[edgeList.get(e)[1]]) coverable |= 1 << e;
+            }
+        }
+
+        /** Builds a model of up to 7 vertices, 2 end vertices and 12 edges. */
+        static Model random(Random random) {
+            int n = 3 + random.nextInt(5);
+            int[] ends = new int[1 + random.nextInt(2)];
+            for (int k = 0; k < ends.length; k++) ends[k] = 1 + random.nextInt(n - 1);
+            boolean[][] seen = new boolean[n][n];
+            List<int[]> edges = new ArrayList<>();
+            for (int k = n + random.nextInt(n); k > 0 && edges.size() < 12; k--) {
+                int u = random.nextInt(n), v = random.nextInt(n);
+                if (u != v && !seen[u][v]) {
+                    seen[u][v] = true;
+                    edges.add(new int[] {u, v});
+                }
+            }
+            return new Model(n, ends, edges.toArray(new int[0][]));
+        }
+
+        /** Returns the vertices reachable from {@code v}, forwards or backwards. */
+        private boolean[] reach(int v, boolean forward) {
+            boolean[] seen = new boolean[n];
+            seen[v] = true;
+            for (boolean changed = true; changed; ) {
+                changed = false;
+                for (int[] edge : edgeList) {
+                    int from = edge[forward ? 0 : 1], to = edge[forward ? 1 : 0];
+                    if (seen[from] && !seen[to]) changed = seen[to] = true;
+                }
+            }
+            return seen;
+        }
+
+        /**
+         * Returns the cost of the cheapest set of start-to-end walks covering
+         * every coverable edge, each walk costing one plus {@code edgeCost}
+         * per edge, by Dijkstra over the covered edges and the current
+         * vertex, or {@code n} between walks.
+         */
+        long optimum(long edgeCost) {
+            int states = (n + 1) << edgeList.size();
+            long[] dist = new long[states];
+            Arrays.fill(dist, Long.MAX_VALUE);
+            PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+            dist[n] = 0;
+            queue.add(new long[] {0, n});
+            while (!queue.isEmpty()) {
+                long[] top = queue.poll();
+                int state = (int) top[1], mask = state / (n + 1), v = state % (n + 1);
+                if (top[0] > dist[state]) continue;
+                if (v == n && (mask & coverable) == coverable) return top[0];
+                if (v == n) {
+                    relax(queue, dist, mask * (n + 1), top[0] + 1);
+                    continue;
+                }
+                if (end[v]) relax(queue, dist, mask * (n + 1) + n, top[0]);
+                for (int e = 0; e < edgeList.size(); e++) {
+                    if (edgeList.get(e)[0] != v) continue;
+                    relax(queue, dist, (mask | 1 << e) * (n + 1) + edgeList.get(e)[1], top[0] + edgeCost);
+                }
+            }
+            throw new AssertionError("coverable edges not covered");
+        }
+
+        private static void relax(PriorityQueue<long[]> queue, long[] dist, int state, long d) {
+            if (d < dist[state]) {
+                dist[state] = d;
+                queue.add(new long[] {d, state});
+            }
+        }
+
+        /** Asserts that the walks are start-to-end walks covering every coverable edge. */
+        void checkCovers(List<List<Integer>> walks, int model) {
+            int covered = 0;
+            for (List<Integer> walk : walks) {
+                assertEquals(0, (int) walk.get(0), "model " + model);
+                assertTrue(end[walk.get(walk.size() - 1)], "model " + model);
+                for (int k = 0; k + 1 < walk.size(); k++) {
+                    int e = edgeIndex[walk.get(k)][walk.get(k + 1)];
+                    assertTrue(e >= 0, "model " + model + ": no edge in " + walk);
+                    covered |= 1 << e;
+                }
+            }
+            assertEquals(coverable, covered & coverable, "model " + model);
+        }
+    }
+}
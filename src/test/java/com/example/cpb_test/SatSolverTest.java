@@ -0,0 +1,263 @@
+/*
+ * Copyright 2025 Neo Tsai
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.cpb_test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks {@link SatSolver} on tiny formulas and against exhaustive
+ * enumeration, and {@link SatSearch} against a breadth-first
+ * {@link AdmissibleSearch} on small random models.
+ */
+public class SatSolverTest {
+    private static final int FORMULAS = 300;
+    private static final int MODELS = 60;
+    private static final int MAX_LENGTH = 10;
+
+    @Test
+    void findsModelOfSatisfiableFormula() {
+        SatSolver solver = solver(3);
+        int[][] clauses = {{1, 2}, {-1, 2}, {-2, 3}, {-3, -1}};
+        for (int[] c : clauses) assertTrue(solver.addClause(c));
+        assertTrue(solver.solve());
+        assertFalse(solver.isStopped());
+        assertSatisfied(solver, clauses);
+        assertFalse(solver.modelValue(1));
+        assertTrue(solver.modelValue(2));
+        assertTrue(solver.modelValue(3));
+    }
+
+    @Test
+    void refutesPigeonhole() {
+        // three pigeons, two holes: p(i, h) = 2 * i + h + 1
+        SatSolver solver = solver(6);
+        for (int i = 0; i < 3; i++) solver.addClause(2 * i + 1, 2 * i + 2);
+        for (int h = 0; h < 2; h++) {
+            for (int i = 0; i < 3; i++) {
+                for (int j = i + 1; j < 3; j++) solver.addClause(-(2 * i + h + 1), -(2 * j + h + 1));
+            }
+        }
+        assertFalse(solver.solve());
+        assertFalse(solver.isStopped());
+        assertFalse(solver.solve());
+    }
+
+    @Test
+    void emptyAndContradictoryClauses() {
+        SatSolver solver = solver(1);
+        assertTrue(solver.addClause(1, -1));
+        assertTrue(solver.addClause(1));
+        assertFalse(solver.addClause(-1));
+        assertFalse(solver.solve());
+        assertFalse(solver(1).addClause());
+    }
+
+    @Test
+    void assumptionsHoldForOneCallOnly() {
+        SatSolver solver = solver(3);
+        solver.addClause(1, 2);
+        solver.addClause(-1, 3);
+        assertFalse(solver.solve(-2, -3));
+        assertFalse(solver.isStopped());
+        assertTrue(solver.solve(-2));
+        assertTrue(solver.modelValue(1));
+        assertTrue(solver.modelValue(3));
+        assertTrue(solver.solve(-1));
+        assertTrue(solver.modelValue(2));
+        assertTrue(solver.solve());
+    }
+
+    @Test
+    void stopsWhenBudgetRunsOut() {
+        Budget budget = new Budget();
+        budget.setMaxExpansions(10);
+        budget.start();
+        // eight pigeons, seven holes: far more than ten decisions and conflicts
+        int pigeons = 8, holes = 7;
+        SatSolver solver = new SatSolver(budget);
+        for (int v = 0; v < pigeons * holes; v++) solver.newVar();
+        for (int i = 0; i < pigeons; i++) {
+            int[] c = new int[holes];
+            for (int h = 0; h < holes; h++) c[h] = i * holes + h + 1;
+            solver.addClause(c);
+        }
+        for (int h = 0; h < holes; h++) {
+            for (int i = 0; i < pigeons; i++) {
+                for (int j = i + 1; j < pigeons; j++) solver.addClause(-(i * holes + h + 1), -(j * holes + h + 1));
+            }
+        }
+        assertFalse(solver.solve());
+        assertTrue(solver.isStopped());
+        assertTrue(budget.getExpansions() >= 10);
+        assertFalse(solver.solve());
+        assertTrue(solver.isStopped());
+    }
+
+    @Test
+    void agreesWithEnumerationOnRandomFormulas() {
+        Random random = new Random(42);
+        for (int f = 0; f < FORMULAS; f++) {
+            // 3-SAT around the threshold of 4.26 clauses per variable, where
+            // about half the formulas are satisfiable and conflicts abound
+            int vars = 6 + random.nextInt(9);
+            int[][] clauses = new int[(int) (vars * (3.6 + random.nextDouble()))][];
+            for (int k = 0; k < clauses.length; k++) {
+                clauses[k] = new int[3];
+                for (int j = 0; j < clauses[k].length; j++) {
+                    int v = 1 + random.nextInt(vars);
+                    clauses[k][j] = random.nextBoolean() ? v : -v;
+                }
+            }
+            SatSolver solver = solver(vars);
+            boolean consistent = true;
+            for (int[] c : clauses) consistent &= solver.addClause(c);
+            // the same solver under a few sets of assumptions, then none
+            for (int round = 0; round < 4; round++) {
+                int[] assumptions = new int[round == 3 ? 0 : 1 + random.nextInt(3)];
+                for (int j = 0; j < assumptions.length; j++) {
+                    int v = 1 + random.nextInt(vars);
+                    assumptions[j] = random.nextBoolean() ? v : -v;
+                }
+                boolean expected = consistent && enumerate(vars, clauses, assumptions);
+                assertEquals(expected, solver.solve(assumptions), "formula " + f + ", round " + round);
+                if (expected) {
+                    assertSatisfied(solver, clauses);
+                    for (int lit : assumptions) assertEquals(lit > 0, solver.modelValue(Math.abs(lit)));
+                }
+            }
+        }
+    }
+
+    @Test
+    void satSearchAgreesWithBreadthFirstSearch() {
+        Random random = new Random(42);
+        int found = 0;
+        for (int m = 0; m < MODELS; m++) {
+            CompactGraph<Integer> g = randomModel(random).freeze();
+            for (int c = 0; c < g.constraintCount(); c++) {
+                int[] bfs = breadthFirst(g, c);
+                int[] sat = new SatSearch(g, c, new BitSet(), MAX_LENGTH, new Budget()).find();
+                String where = "model " + m + ", constraint " + c;
+                if (bfs == null || bfs.length - 1 > MAX_LENGTH) {
+                    assertNull(sat, where);
+                    continue;
+                }
+                assertTrue(sat != null, where);
+                assertEquals(bfs.length, sat.length, where);
+                assertEquals(g.startVertex(), sat[0], where);
+                assertTrue(g.isEnd(sat[sat.length - 1]), where);
+                for (int k = 0; k + 1 < sat.length; k++) {
+                    assertTrue(g.edgeId(sat[k], sat[k + 1]) >= 0, where);
+                }
+                found++;
+            }
+        }
+        assertTrue(found > MODELS, "too few paths to compare: " + found);
+    }
+
+    private static SatSolver solver(int vars) {
+        SatSolver solver = new SatSolver(new Budget());
+        for (int v = 0; v < vars; v++) solver.newVar();
+        return solver;
+    }
+
+    private static void assertSatisfied(SatSolver solver, int[][] clauses) {
+        for (int[] c : clauses) {
+            boolean satisfied = false;
+            for (int lit : c) satisfied |= solver.modelValue(Math.abs(lit)) == lit > 0;
+            assertTrue(satisfied, "clause not satisfied");
+        }
+    }
+
+    /** Checks every assignment of {@code vars} variables. */
+    private static boolean enumerate(int vars, int[][] clauses, int[] assumptions) {
+        for (int bits = 0; bits < 1 << vars; bits++) {
+            if (holds(bits, assumptions, true)) {
+                boolean all = true;
+                for (int[] c : clauses) all &= holds(bits, c, false);
+                if (all) return true;
+            }
+        }
+        return false;
+    }
+
+    /** Checks whether all literals, or some literal, hold under an assignment. */
+    private static boolean holds(int bits, int[] literals, boolean all) {
+        for (int lit : literals) {
+            boolean value = (bits >> (Math.abs(lit) - 1) & 1) != 0;
+            if (value == lit > 0) {
+                if (!all) return true;
+            } else if (all) {
+                return false;
+            }
+        }
+        return all;
+    }
+
+    /**
+     * Finds a shortest admissible path by breadth-first search with a visit
+     * limit high enough not to bind on these models, so it sees the same
+     * paths as the SAT encoding.
+     */
+    private static int[] breadthFirst(CompactGraph<Integer> g, int target) {
+        AdmissibleSearch search = new AdmissibleSearch(g, target, new BitSet(), new Budget());
+        SearchFrontier tree = search.tree();
+        int root = search.root();
+        for (int node = root; node < tree.size(); node++) {
+            int last = tree.vertex(node);
+            if (node != root && g.isEnd(last)) {
+                if (search.isGoal(node)) return tree.path(node);
+                continue;
+            }
+            for (int k = 0; k < g.outDegree(last); k++) {
+                search.expand(node, g.outEdge(last, k), MAX_LENGTH + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Builds a cyclic model: a chain from start to end, random extra edges
+     * and a mix of constraints of every type.
+     */
+    private static SUT<Integer> randomModel(Random random) {
+        int n = 4 + random.nextInt(6);
+        SUT<Integer> sut = new SUT<>();
+        for (int v = 0; v < n; v++) sut.addVertex(v);
+        sut.setStartVertex(0);
+        sut.addEndVertex(n - 1);
+        for (int v = 0; v + 1 < n; v++) sut.addEdge(v, v + 1);
+        for (int k = 0; k < n; k++) {
+            int u = random.nextInt(n - 1), v = random.nextInt(n);
+            if (u != v) sut.addEdge(u, v);
+        }
+        ConstraintType[] types = ConstraintType.values();
+        for (int k = 0; k < 6; k++) {
+            sut.addConstraint(new Constraint<>(random.nextInt(n), random.nextInt(n),
+                    types[random.nextInt(types.length)]));
+        }
+        return sut;
+    }
+}